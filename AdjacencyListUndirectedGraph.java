@@ -0,0 +1,724 @@
+package it.unicam.cs.asdl2324.mp2;
+
+import java.util.*;
+
+// ATTENZIONE: è vietato includere import a pacchetti che non siano della Java SE
+
+/**
+ * Classe che implementa un grafo non orientato sparso tramite liste di
+ * adiacenza. Offre la stessa interfaccia e gli stessi vincoli di
+ * {@code AdjacencyMatrixUndirectedGraph<L>}: non sono accettate etichette dei
+ * nodi null né etichette duplicate e i nodi sono indicizzati da 0 a
+ * nodeCount() - 1 seguendo l'ordine del loro inserimento.
+ *
+ * Durante la costruzione ogni nodo ha una mappa che associa ad ogni nodo
+ * adiacente l'arco che li collega, per cui la memoria occupata è
+ * proporzionale al numero di nodi più il numero di archi e l'insieme degli
+ * adiacenti di un nodo si ottiene in tempo proporzionale al suo grado.
+ *
+ * Per gli algoritmi che leggono molte volte il grafo senza modificarlo il
+ * grafo può essere congelato con {@link #freeze()}: vengono costruiti gli
+ * array in formato compressed sparse row (CSR), in cui gli adiacenti del nodo
+ * i occupano le posizioni da rowOffsets[i] compresa a rowOffsets[i + 1]
+ * esclusa di columnIndices e csrWeights, e sono abilitati i metodi
+ * {@link #degree(int)}, {@link #neighbor(int, int)} e
+ * {@link #neighborWeight(int, int)} che li leggono senza allocare oggetti.
+ * Finché il grafo è congelato ogni modifica solleva
+ * IllegalStateException; {@link #unfreeze()} lo rende di nuovo modificabile.
+ *
+ * @param <L>
+ *                tipo delle etichette dei nodi del grafo
+ */
+public class AdjacencyListUndirectedGraph<L> extends Graph<L> implements WeightedAdjacency {
+    /*
+     * Le seguenti variabili istanza sono protected al solo scopo di agevolare
+     * il JUnit testing
+     */
+
+    /*
+     * Insieme dei nodi e associazione di ogni nodo con il proprio indice
+     */
+    protected Map<GraphNode<L>, Integer> nodesIndex;
+
+    /*
+     * Associazione di ogni etichetta con il nodo corrispondente
+     */
+    protected Map<L, GraphNode<L>> labelsIndex;
+
+    /*
+     * Nodi ordinati per indice: la posizione i contiene il nodo di indice i
+     */
+    protected ArrayList<GraphNode<L>> nodesList;
+
+    /*
+     * Liste di adiacenza: la posizione i contiene la mappa che associa ad ogni
+     * nodo adiacente al nodo di indice i l'arco che li collega. Un cappio
+     * compare una sola volta nella mappa del suo nodo.
+     */
+    protected ArrayList<Map<GraphNode<L>, GraphEdge<L>>> adjacency;
+
+    /*
+     * Rappresentazione CSR, null se il grafo non è congelato
+     */
+    protected int[] rowOffsets;
+
+    protected int[] columnIndices;
+
+    protected double[] csrWeights;
+
+    /*
+     * Numero di archi presenti
+     */
+    private int edgeCounter;
+
+    /**
+     * Crea un grafo vuoto.
+     */
+    public AdjacencyListUndirectedGraph() {
+        this.nodesIndex = new HashMap<GraphNode<L>, Integer>();
+        this.labelsIndex = new HashMap<L, GraphNode<L>>();
+        this.nodesList = new ArrayList<GraphNode<L>>();
+        this.adjacency = new ArrayList<Map<GraphNode<L>, GraphEdge<L>>>();
+        this.edgeCounter = 0;
+    }
+
+    /**
+     * Congela il grafo costruendo la sua rappresentazione CSR. Se il grafo è
+     * già congelato non fa nulla.
+     */
+    public void freeze() {
+        if (isFrozen()) {
+            return;
+        }
+        int n = nodeCount();
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] = offsets[i] + adjacency.get(i).size();
+        }
+        int[] columns = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        for (int i = 0; i < n; i++) {
+            int k = offsets[i];
+            for (Map.Entry<GraphNode<L>, GraphEdge<L>> entry : adjacency.get(i).entrySet()) {
+                columns[k] = nodesIndex.get(entry.getKey());
+                weights[k] = entry.getValue().hasWeight() ? entry.getValue().getWeight() : Double.NaN;
+                k++;
+            }
+        }
+        this.rowOffsets = offsets;
+        this.columnIndices = columns;
+        this.csrWeights = weights;
+    }
+
+    /**
+     * Rende di nuovo modificabile il grafo scartando la rappresentazione CSR.
+     */
+    public void unfreeze() {
+        this.rowOffsets = null;
+        this.columnIndices = null;
+        this.csrWeights = null;
+    }
+
+    /**
+     * Determina se il grafo è congelato.
+     *
+     * @return true se il grafo è congelato, false altrimenti
+     */
+    public boolean isFrozen() {
+        return rowOffsets != null;
+    }
+
+    /**
+     * Restituisce il grado di un nodo leggendo la rappresentazione CSR.
+     *
+     * @param i
+     *              l'indice del nodo
+     * @return il numero di nodi adiacenti al nodo di indice i
+     * @throw IllegalStateException se il grafo non è congelato
+     * @throw IndexOutOfBoundsException se l'indice non corrisponde a un nodo
+     */
+    public int degree(int i) {
+        checkFrozen();
+        if (i < 0 || i >= nodeCount()) {
+            throw new IndexOutOfBoundsException("Index out of bound");
+        }
+        return rowOffsets[i + 1] - rowOffsets[i];
+    }
+
+    /**
+     * Restituisce l'indice del k-esimo nodo adiacente a un nodo leggendo la
+     * rappresentazione CSR.
+     *
+     * @param i
+     *              l'indice del nodo
+     * @param k
+     *              la posizione dell'adiacente, da 0 a degree(i) - 1
+     * @return l'indice del k-esimo nodo adiacente al nodo di indice i
+     * @throw IllegalStateException se il grafo non è congelato
+     * @throw IndexOutOfBoundsException se uno degli indici non è valido
+     */
+    public int neighbor(int i, int k) {
+        return columnIndices[csrPosition(i, k)];
+    }
+
+    /**
+     * Restituisce il peso dell'arco verso il k-esimo nodo adiacente a un nodo
+     * leggendo la rappresentazione CSR.
+     *
+     * @param i
+     *              l'indice del nodo
+     * @param k
+     *              la posizione dell'adiacente, da 0 a degree(i) - 1
+     * @return il peso dell'arco, NaN se l'arco non è pesato
+     * @throw IllegalStateException se il grafo non è congelato
+     * @throw IndexOutOfBoundsException se uno degli indici non è valido
+     */
+    public double neighborWeight(int i, int k) {
+        return csrWeights[csrPosition(i, k)];
+    }
+
+    /**
+     * Esegue l'operazione data su ogni nodo adiacente al nodo di indice i,
+     * passandole l'indice dell'adiacente e il peso dell'arco, NaN se l'arco
+     * non è pesato. Se il grafo è congelato la visita legge la
+     * rappresentazione CSR senza creare oggetti, altrimenti scorre la mappa
+     * degli adiacenti del nodo. In entrambi i casi il costo è proporzionale
+     * al grado del nodo.
+     *
+     * @param i
+     *                   l'indice del nodo
+     * @param action
+     *                   l'operazione da eseguire su ogni adiacente
+     * @throw NullPointerException se l'operazione è null
+     * @throw IndexOutOfBoundsException se l'indice non corrisponde a un nodo
+     */
+    @Override
+    public void forEachNeighbor(int i, IntDoubleConsumer action) {
+        if (action == null) {
+            throw new NullPointerException("Action is null");
+        }
+        if (i < 0 || i >= nodeCount()) {
+            throw new IndexOutOfBoundsException("Index out of bound");
+        }
+        if (isFrozen()) {
+            for (int k = rowOffsets[i]; k < rowOffsets[i + 1]; k++) {
+                action.accept(columnIndices[k], csrWeights[k]);
+            }
+            return;
+        }
+        for (Map.Entry<GraphNode<L>, GraphEdge<L>> entry : adjacency.get(i).entrySet()) {
+            action.accept(nodesIndex.get(entry.getKey()), entry.getValue().getWeight());
+        }
+    }
+
+    @Override
+    public int nodeCount() {
+        return nodesList.size();
+    }
+
+    @Override
+    public int edgeCount() {
+        return edgeCounter;
+    }
+
+    @Override
+    public void clear() {
+        checkNotFrozen();
+        nodesIndex.clear();
+        labelsIndex.clear();
+        nodesList.clear();
+        adjacency.clear();
+        edgeCounter = 0;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return false;
+    }
+
+    /*
+     * Gli indici dei nodi vanno assegnati nell'ordine di inserimento a partire
+     * da zero
+     */
+    @Override
+    public boolean addNode(GraphNode<L> node) {
+        if (node == null) {
+            throw new NullPointerException("Node is null");
+        }
+        checkNotFrozen();
+        if (nodesIndex.containsKey(node)) {
+            return false;
+        }
+        insertNode(node);
+        return true;
+    }
+
+    /*
+     * Gli indici dei nodi vanno assegnati nell'ordine di inserimento a partire
+     * da zero
+     */
+    @Override
+    public boolean addNode(L label) {
+        if (label == null) {
+            throw new NullPointerException("Label is null");
+        }
+        checkNotFrozen();
+        if (labelsIndex.containsKey(label)) {
+            return false;
+        }
+        insertNode(new GraphNode<L>(label));
+        return true;
+    }
+
+    /*
+     * Gli indici dei nodi il cui valore sia maggiore dell'indice del nodo da
+     * cancellare devono essere decrementati di uno dopo la cancellazione del
+     * nodo
+     */
+    @Override
+    public void removeNode(GraphNode<L> node) {
+        if (node == null) {
+            throw new NullPointerException("Node is null");
+        }
+        if (!nodesIndex.containsKey(node)) {
+            throw new IllegalArgumentException("Node not in map");
+        }
+        removeNodeAt(nodesIndex.get(node));
+    }
+
+    /*
+     * Gli indici dei nodi il cui valore sia maggiore dell'indice del nodo da
+     * cancellare devono essere decrementati di uno dopo la cancellazione del
+     * nodo
+     */
+    @Override
+    public void removeNode(L label) {
+        if (label == null) {
+            throw new NullPointerException("Label is null");
+        }
+        GraphNode<L> node = labelsIndex.get(label);
+        if (node == null) {
+            throw new IllegalArgumentException("Node not in map");
+        }
+        removeNodeAt(nodesIndex.get(node));
+    }
+
+    /*
+     * Gli indici dei nodi il cui valore sia maggiore dell'indice del nodo da
+     * cancellare devono essere decrementati di uno dopo la cancellazione del
+     * nodo
+     */
+    @Override
+    public void removeNode(int i) {
+        if (i < 0 || i >= nodeCount()) {
+            throw new IndexOutOfBoundsException("Index is out of bounds");
+        }
+        removeNodeAt(i);
+    }
+
+    @Override
+    public GraphNode<L> getNode(GraphNode<L> node) {
+        if (node == null) {
+            throw new NullPointerException("Node is null");
+        }
+        return labelsIndex.get(node.getLabel());
+    }
+
+    @Override
+    public GraphNode<L> getNode(L label) {
+        if (label == null) {
+            throw new NullPointerException("Label is null");
+        }
+        return labelsIndex.get(label);
+    }
+
+    @Override
+    public GraphNode<L> getNode(int i) {
+        if (i < 0 || i >= nodeCount()) {
+            throw new IndexOutOfBoundsException("Index is out of bounds");
+        }
+        return nodesList.get(i);
+    }
+
+    @Override
+    public int getNodeIndexOf(GraphNode<L> node) {
+        if (node == null) {
+            throw new NullPointerException("Node is null");
+        }
+        if (!nodesIndex.containsKey(node)) {
+            throw new IllegalArgumentException("Node not in map");
+        }
+        return nodesIndex.get(node);
+    }
+
+    @Override
+    public int getNodeIndexOf(L label) {
+        if (label == null) {
+            throw new NullPointerException("Label is null");
+        }
+        GraphNode<L> node = labelsIndex.get(label);
+        if (node == null) {
+            throw new IllegalArgumentException("Node with given label not in map");
+        }
+        return nodesIndex.get(node);
+    }
+
+    @Override
+    public Set<GraphNode<L>> getNodes() {
+        return nodesIndex.keySet();
+    }
+
+    @Override
+    public boolean addEdge(GraphEdge<L> edge) {
+        if (edge == null) {
+            throw new NullPointerException("Edge is null");
+        }
+        if (getNode(edge.getNode1()) == null || getNode(edge.getNode2()) == null) {
+            throw new IllegalArgumentException("One of the nodes of Edge is null");
+        }
+        if (edge.isDirected()) {
+            throw new IllegalArgumentException("Edge is directed");
+        }
+        return putIfAbsent(edge);
+    }
+
+    @Override
+    public boolean addEdge(GraphNode<L> node1, GraphNode<L> node2) {
+        if (node1 == null || node2 == null) {
+            throw new NullPointerException("One of the nodes is null");
+        }
+        if (getNode(node1) == null || getNode(node2) == null) {
+            throw new IllegalArgumentException("One of the nodes is not in Map");
+        }
+        return putIfAbsent(new GraphEdge<L>(getNode(node1), getNode(node2), false));
+    }
+
+    @Override
+    public boolean addWeightedEdge(GraphNode<L> node1, GraphNode<L> node2, double weight) {
+        if (node1 == null || node2 == null) {
+            throw new NullPointerException("One of the nodes is null");
+        }
+        if (getNode(node1) == null || getNode(node2) == null) {
+            throw new IllegalArgumentException("One of the nodes is not in Map");
+        }
+        return putIfAbsent(new GraphEdge<L>(getNode(node1), getNode(node2), false, weight));
+    }
+
+    @Override
+    public boolean addEdge(L label1, L label2) {
+        if (label1 == null || label2 == null) {
+            throw new NullPointerException("One of the labels is null");
+        }
+        if (getNode(label1) == null || getNode(label2) == null) {
+            throw new IllegalArgumentException("One of the nodes is not in Map");
+        }
+        return putIfAbsent(new GraphEdge<L>(getNode(label1), getNode(label2), false));
+    }
+
+    @Override
+    public boolean addWeightedEdge(L label1, L label2, double weight) {
+        if (label1 == null || label2 == null) {
+            throw new NullPointerException("One of the labels is null");
+        }
+        if (getNode(label1) == null || getNode(label2) == null) {
+            throw new IllegalArgumentException("One of the nodes is not in Map");
+        }
+        return putIfAbsent(new GraphEdge<L>(getNode(label1), getNode(label2), false, weight));
+    }
+
+    @Override
+    public boolean addEdge(int i, int j) {
+        if (i < 0 || j < 0 || i >= nodeCount() || j >= nodeCount()) {
+            throw new IndexOutOfBoundsException("Index out of bound");
+        }
+        put(new GraphEdge<L>(getNode(i), getNode(j), false));
+        return true;
+    }
+
+    @Override
+    public boolean addWeightedEdge(int i, int j, double weight) {
+        if (i < 0 || j < 0 || i >= nodeCount() || j >= nodeCount()) {
+            throw new IndexOutOfBoundsException("Index out of bound");
+        }
+        put(new GraphEdge<L>(getNode(i), getNode(j), false, weight));
+        return true;
+    }
+
+    @Override
+    public void removeEdge(GraphEdge<L> edge) {
+        if (edge == null) {
+            throw new NullPointerException("Edge is null");
+        }
+        if (getEdge(edge) == null) {
+            throw new IllegalArgumentException("Edge not in matrix");
+        }
+        remove(edge.getNode1(), edge.getNode2());
+    }
+
+    @Override
+    public void removeEdge(GraphNode<L> node1, GraphNode<L> node2) {
+        if (node1 == null || node2 == null) {
+            throw new NullPointerException("One of the nodes is null");
+        }
+        if (getEdge(node1, node2) == null) {
+            throw new IllegalArgumentException("Edge not in matrix");
+        }
+        remove(node1, node2);
+    }
+
+    @Override
+    public void removeEdge(L label1, L label2) {
+        if (label1 == null || label2 == null) {
+            throw new NullPointerException("One of the labels is null");
+        }
+        if (getEdge(label1, label2) == null) {
+            throw new IllegalArgumentException("Edge not in matrix");
+        }
+        remove(getNode(label1), getNode(label2));
+    }
+
+    @Override
+    public void removeEdge(int i, int j) {
+        if (i < 0 || j < 0 || i >= nodeCount() || j >= nodeCount()) {
+            throw new IndexOutOfBoundsException("Index out of bound");
+        }
+        remove(getNode(i), getNode(j));
+    }
+
+    @Override
+    public GraphEdge<L> getEdge(GraphEdge<L> edge) {
+        if (edge == null) {
+            throw new NullPointerException("Edge is null");
+        }
+        if (getNode(edge.getNode1()) == null || getNode(edge.getNode2()) == null) {
+            throw new IllegalArgumentException("One of the nodes not in map");
+        }
+        GraphEdge<L> stored = adjacencyOf(edge.getNode1()).get(edge.getNode2());
+        return edge.equals(stored) ? stored : null;
+    }
+
+    @Override
+    public GraphEdge<L> getEdge(GraphNode<L> node1, GraphNode<L> node2) {
+        if (node1 == null || node2 == null) {
+            throw new NullPointerException("One of the nodes is null");
+        }
+        if (getNode(node1) == null || getNode(node2) == null) {
+            throw new IllegalArgumentException("One of the nodes not in map");
+        }
+        return adjacencyOf(node1).get(node2);
+    }
+
+    @Override
+    public GraphEdge<L> getEdge(L label1, L label2) {
+        if (label1 == null || label2 == null) {
+            throw new NullPointerException("One of the labels is null");
+        }
+        if (getNode(label1) == null || getNode(label2) == null) {
+            throw new IllegalArgumentException("One of the nodes with given label not in map");
+        }
+        return adjacencyOf(getNode(label1)).get(getNode(label2));
+    }
+
+    @Override
+    public GraphEdge<L> getEdge(int i, int j) {
+        if (i < 0 || j < 0 || i >= nodeCount() || j >= nodeCount()) {
+            throw new IndexOutOfBoundsException("Index out of bound");
+        }
+        return adjacency.get(i).get(nodesList.get(j));
+    }
+
+    @Override
+    public Set<GraphNode<L>> getAdjacentNodesOf(GraphNode<L> node) {
+        if (node == null) {
+            throw new NullPointerException("Node is null");
+        }
+        if (getNode(node) == null) {
+            throw new IllegalArgumentException("Node not in map");
+        }
+        return new HashSet<>(adjacencyOf(node).keySet());
+    }
+
+    @Override
+    public Set<GraphNode<L>> getAdjacentNodesOf(L label) {
+        if (label == null) {
+            throw new NullPointerException("Label is null");
+        }
+        if (getNode(label) == null) {
+            throw new IllegalArgumentException("Node not in map");
+        }
+        return new HashSet<>(adjacencyOf(getNode(label)).keySet());
+    }
+
+    @Override
+    public Set<GraphNode<L>> getAdjacentNodesOf(int i) {
+        if (i < 0 || i >= nodeCount()) {
+            throw new IndexOutOfBoundsException("Index out of bound");
+        }
+        return new HashSet<>(adjacency.get(i).keySet());
+    }
+
+    @Override
+    public Set<GraphNode<L>> getPredecessorNodesOf(GraphNode<L> node) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphNode<L>> getPredecessorNodesOf(L label) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphNode<L>> getPredecessorNodesOf(int i) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdgesOf(GraphNode<L> node) {
+        if (node == null) {
+            throw new NullPointerException("Node is null");
+        }
+        if (getNode(node) == null) {
+            throw new IllegalArgumentException("Node not in map");
+        }
+        return new HashSet<>(adjacencyOf(node).values());
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdgesOf(L label) {
+        if (label == null) {
+            throw new NullPointerException("Label is null");
+        }
+        if (getNode(label) == null) {
+            throw new IllegalArgumentException("Node not in map");
+        }
+        return new HashSet<>(adjacencyOf(getNode(label)).values());
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdgesOf(int i) {
+        if (i < 0 || i >= nodeCount()) {
+            throw new IndexOutOfBoundsException("Index out of bound");
+        }
+        return new HashSet<>(adjacency.get(i).values());
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getIngoingEdgesOf(GraphNode<L> node) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getIngoingEdgesOf(L label) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getIngoingEdgesOf(int i) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdges() {
+        Set<GraphEdge<L>> edges = new HashSet<>();
+        for (Map<GraphNode<L>, GraphEdge<L>> list : adjacency) {
+            edges.addAll(list.values());
+        }
+        return edges;
+    }
+
+    private void checkFrozen() {
+        if (!isFrozen()) {
+            throw new IllegalStateException("Graph is not frozen");
+        }
+    }
+
+    private void checkNotFrozen() {
+        if (isFrozen()) {
+            throw new IllegalStateException("Graph is frozen");
+        }
+    }
+
+    /*
+     * Posizione negli array CSR del k-esimo adiacente del nodo di indice i
+     */
+    private int csrPosition(int i, int k) {
+        checkFrozen();
+        if (i < 0 || i >= nodeCount()) {
+            throw new IndexOutOfBoundsException("Index out of bound");
+        }
+        if (k < 0 || k >= rowOffsets[i + 1] - rowOffsets[i]) {
+            throw new IndexOutOfBoundsException("Neighbor index out of bound");
+        }
+        return rowOffsets[i] + k;
+    }
+
+    private Map<GraphNode<L>, GraphEdge<L>> adjacencyOf(GraphNode<L> node) {
+        return adjacency.get(nodesIndex.get(node));
+    }
+
+    private void insertNode(GraphNode<L> node) {
+        nodesIndex.put(node, nodesList.size());
+        labelsIndex.put(node.getLabel(), node);
+        nodesList.add(node);
+        adjacency.add(new HashMap<GraphNode<L>, GraphEdge<L>>());
+    }
+
+    /*
+     * Cancella il nodo di indice pos insieme agli archi che lo toccano e
+     * decrementa di uno gli indici dei nodi successivi.
+     */
+    private void removeNodeAt(int pos) {
+        checkNotFrozen();
+        GraphNode<L> removed = nodesList.get(pos);
+        for (GraphNode<L> adjacent : new ArrayList<>(adjacency.get(pos).keySet())) {
+            remove(removed, adjacent);
+        }
+        nodesList.remove(pos);
+        adjacency.remove(pos);
+        nodesIndex.remove(removed);
+        labelsIndex.remove(removed.getLabel());
+        for (int k = pos; k < nodesList.size(); k++) {
+            nodesIndex.put(nodesList.get(k), k);
+        }
+    }
+
+    /*
+     * Inserisce l'arco solo se non ne è presente uno uguale secondo equals
+     */
+    private boolean putIfAbsent(GraphEdge<L> edge) {
+        checkNotFrozen();
+        if (adjacencyOf(edge.getNode1()).containsKey(edge.getNode2())) {
+            return false;
+        }
+        put(edge);
+        return true;
+    }
+
+    /*
+     * Inserisce l'arco sostituendo quello eventualmente presente tra gli
+     * stessi nodi
+     */
+    private void put(GraphEdge<L> edge) {
+        checkNotFrozen();
+        GraphNode<L> node1 = getNode(edge.getNode1());
+        GraphNode<L> node2 = getNode(edge.getNode2());
+        if (adjacencyOf(node1).put(node2, edge) == null) {
+            edgeCounter++;
+        }
+        adjacencyOf(node2).put(node1, edge);
+    }
+
+    private void remove(GraphNode<L> node1, GraphNode<L> node2) {
+        checkNotFrozen();
+        if (adjacencyOf(node1).remove(node2) != null) {
+            edgeCounter--;
+        }
+        adjacencyOf(node2).remove(node1);
+    }
+}
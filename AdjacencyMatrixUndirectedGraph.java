@@ -4,6 +4,7 @@
 package it.unicam.cs.asdl2324.mp2;
 
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 
 // TODO completare gli import necessari
 
@@ -23,7 +24,10 @@ import java.util.*;
  * 
  * Gli oggetti GraphNode<L>, cioè i nodi, sono memorizzati in una mappa che
  * associa ad ogni nodo l'indice assegnato in fase di inserimento. Il dominio
- * della mappa rappresenta quindi l'insieme dei nodi.
+ * della mappa rappresenta quindi l'insieme dei nodi. Per recuperare un nodo
+ * in tempo costante a partire dalla sua etichetta o dal suo indice sono
+ * mantenute anche una mappa dalle etichette ai nodi e una lista dei nodi
+ * ordinata per indice, aggiornate insieme alla mappa ad ogni modifica.
  * 
  * Gli archi sono memorizzati nella matrice di adiacenza. A differenza della
  * rappresentazione standard con matrice di adiacenza, la posizione i,j della
@@ -36,11 +40,18 @@ import java.util.*;
  * Questa classe non supporta i metodi di cancellazione di nodi e archi, ma
  * supporta tutti i metodi che usano indici, utilizzando l'indice assegnato a
  * ogni nodo in fase di inserimento.
+ * 
+ * La cancellazione di un nodo con removeNode decrementa gli indici dei nodi
+ * successivi e deve quindi spostare una colonna in ogni riga, con costo
+ * O(n²). Quando l'ordine degli indici non interessa, swapRemoveNode sposta
+ * l'ultimo nodo nella posizione liberata in tempo O(n) e restituisce il suo
+ * vecchio indice; removeNodes cancella invece un insieme di nodi preservando
+ * l'ordine degli altri, con una sola compattazione O(n²) della matrice.
  *
  *
  * 
  */
-public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
+public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> implements WeightedAdjacency {
     /*
      * Le seguenti variabili istanza sono protected al solo scopo di agevolare
      * il JUnit testing
@@ -59,7 +70,49 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
      * ridimensionarsi se un nodo viene cancellato.
      */
     protected ArrayList<ArrayList<GraphEdge<L>>> matrix;
-    private int index = 0;
+
+    /*
+     * Associazione di ogni etichetta con il nodo corrispondente. Permette di
+     * recuperare un nodo a partire dalla sua etichetta in tempo costante senza
+     * scorrere l'insieme dei nodi.
+     */
+    protected Map<L, GraphNode<L>> labelsIndex;
+
+    /*
+     * Nodi ordinati per indice: la posizione i contiene il nodo di indice i.
+     * Va mantenuta coerente con nodesIndex ad ogni inserimento e cancellazione.
+     */
+    protected ArrayList<GraphNode<L>> nodesList;
+
+    /*
+     * Insieme degli archi presenti nella matrice, aggiornato ad ogni
+     * inserimento e cancellazione. Viene esposto da getEdges() tramite una
+     * vista non modificabile.
+     */
+    protected Set<GraphEdge<L>> edgesSet;
+
+    /*
+     * Vista non modificabile di edgesSet restituita da getEdges()
+     */
+    private Set<GraphEdge<L>> edgesView;
+
+    /*
+     * Numero di archi presenti nella matrice
+     */
+    private int edgeCounter;
+
+    /*
+     * Metriche raccolte, null se la raccolta è disattivata, e contatori già
+     * recuperati: scansioni di righe, ricerche di nodi per nodo o etichetta
+     * e nodi rinumerati dalle cancellazioni
+     */
+    private Metrics metrics;
+
+    private LongAdder rowScans;
+
+    private LongAdder nodeLookups;
+
+    private LongAdder renumberedNodes;
 
     /**
      * Crea un grafo vuoto.
@@ -67,6 +120,39 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
     public AdjacencyMatrixUndirectedGraph() {
         this.matrix = new ArrayList<ArrayList<GraphEdge<L>>>();
         this.nodesIndex = new HashMap<GraphNode<L>, Integer>();
+        this.labelsIndex = new HashMap<L, GraphNode<L>>();
+        this.nodesList = new ArrayList<GraphNode<L>>();
+        this.edgesSet = new LinkedHashSet<GraphEdge<L>>();
+        this.edgesView = Collections.unmodifiableSet(this.edgesSet);
+        this.edgeCounter = 0;
+    }
+
+    /**
+     * Attiva o disattiva la raccolta di metriche. I contatori aggiornati sono
+     * "adjacencyMatrix.rowScans", righe della matrice scorse per intero,
+     * "adjacencyMatrix.getNode", ricerche di un nodo per nodo o per etichetta,
+     * e "adjacencyMatrix.removeNode.renumbered", nodi il cui indice è
+     * cambiato a causa di una cancellazione.
+     *
+     * @param metrics
+     *                    le metriche da aggiornare, null per disattivare la
+     *                    raccolta
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+        this.rowScans = metrics == null ? null : metrics.counter("adjacencyMatrix.rowScans");
+        this.nodeLookups = metrics == null ? null : metrics.counter("adjacencyMatrix.getNode");
+        this.renumberedNodes = metrics == null ? null
+                : metrics.counter("adjacencyMatrix.removeNode.renumbered");
+    }
+
+    /**
+     * Restituisce le metriche aggiornate da questo grafo.
+     *
+     * @return le metriche, null se la raccolta è disattivata
+     */
+    public Metrics getMetrics() {
+        return metrics;
     }
 
     @Override
@@ -76,21 +162,17 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
 
     @Override
     public int edgeCount() {
-        int edgeCounter = 0;
-        for (ArrayList<GraphEdge<L>> list : this.matrix) {
-            for (GraphEdge<L> edge : list) {
-                if (edge != null) {
-                    edgeCounter++;
-                }
-            }
-        }
-        return edgeCounter / 2;
+        return edgeCounter;
     }
 
     @Override
     public void clear() {
         nodesIndex.clear();
+        labelsIndex.clear();
+        nodesList.clear();
         matrix.clear();
+        edgesSet.clear();
+        edgeCounter = 0;
     }
 
     @Override
@@ -109,17 +191,8 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         }
         if (nodesIndex.containsKey(node)) {
             return false;
-        } else {
-            nodesIndex.put(node, index);
         }
-        matrix.add(index, new ArrayList<>());
-        for (int i = 0; i < index; i++) {
-            matrix.get(index).add(null);
-        }
-        for (int i = 0; i < matrix.size(); i++) {
-            matrix.get(i).add(null);
-        }
-        index++;
+        insertNode(node);
         return true;
     }
 
@@ -132,21 +205,115 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         if (label == null) {
             throw new NullPointerException("Label is null");
         }
-        for (GraphNode<L> node : nodesIndex.keySet()) {
-            if (node.getLabel() == label) {
-                return false;
+        if (labelsIndex.containsKey(label)) {
+            return false;
+        }
+        insertNode(new GraphNode<L>(label));
+        return true;
+    }
+
+    /**
+     * Aggiunge in blocco un insieme di nodi e di archi. I nodi ricevono, in
+     * ordine, gli indici successivi a quelli già presenti; il k-esimo arco
+     * collega i nodi di indice sources[k] e targets[k], che possono essere sia
+     * nodi già presenti sia nodi nuovi, e ha peso weights[k], oppure non è
+     * pesato se weights è null o weights[k] è NaN. Come in
+     * addWeightedEdge(int, int, double) un arco tra due nodi già collegati
+     * sostituisce quello precedente.
+     *
+     * Tutti i parametri sono controllati prima di modificare il grafo. Ogni
+     * riga esistente viene ingrandita una sola volta e ogni riga nuova viene
+     * allocata direttamente della dimensione finale, quindi il caricamento
+     * costa O(n² + m) invece delle riallocazioni ripetute di n chiamate di
+     * addNode.
+     *
+     * @param labels
+     *                    le etichette dei nuovi nodi
+     * @param sources
+     *                    gli indici dei primi estremi degli archi
+     * @param targets
+     *                    gli indici dei secondi estremi degli archi
+     * @param weights
+     *                    i pesi degli archi, null se gli archi non sono
+     *                    pesati
+     * @throw NullPointerException se labels, sources, targets o una delle
+     *        etichette sono null
+     * @throw IllegalArgumentException se gli array hanno lunghezze diverse o
+     *        se un'etichetta è ripetuta o già presente nel grafo
+     * @throw IndexOutOfBoundsException se un indice degli archi non
+     *        corrisponde a un nodo, già presente o nuovo
+     */
+    public void addAll(List<L> labels, int[] sources, int[] targets, double[] weights) {
+        if (labels == null || sources == null || targets == null) {
+            throw new NullPointerException("Parametri null");
+        }
+        if (sources.length != targets.length || (weights != null && weights.length != sources.length)) {
+            throw new IllegalArgumentException("Array lengths differ");
+        }
+        int old = nodesList.size();
+        int n = old + labels.size();
+        Set<L> batch = new HashSet<>();
+        for (L label : labels) {
+            if (label == null) {
+                throw new NullPointerException("Label is null");
+            }
+            if (labelsIndex.containsKey(label) || !batch.add(label)) {
+                throw new IllegalArgumentException("Duplicate label: " + label);
+            }
+        }
+        for (int k = 0; k < sources.length; k++) {
+            if (sources[k] < 0 || sources[k] >= n || targets[k] < 0 || targets[k] >= n) {
+                throw new IndexOutOfBoundsException("Index out of bound");
             }
         }
+        for (ArrayList<GraphEdge<L>> row : matrix) {
+            row.ensureCapacity(n);
+            for (int j = old; j < n; j++) {
+                row.add(null);
+            }
+        }
+        matrix.ensureCapacity(n);
+        nodesList.ensureCapacity(n);
+        for (L label : labels) {
+            GraphNode<L> node = new GraphNode<L>(label);
+            nodesIndex.put(node, nodesList.size());
+            labelsIndex.put(label, node);
+            nodesList.add(node);
+            ArrayList<GraphEdge<L>> row = new ArrayList<>(n);
+            for (int j = 0; j < n; j++) {
+                row.add(null);
+            }
+            matrix.add(row);
+        }
+        for (int k = 0; k < sources.length; k++) {
+            GraphNode<L> node1 = nodesList.get(sources[k]);
+            GraphNode<L> node2 = nodesList.get(targets[k]);
+            GraphEdge<L> edge;
+            if (weights == null || Double.isNaN(weights[k])) {
+                edge = new GraphEdge<L>(node1, node2, false);
+            } else {
+                edge = new GraphEdge<L>(node1, node2, false, weights[k]);
+            }
+            putEdge(sources[k], targets[k], edge);
+        }
+    }
+
+    /*
+     * Aggiunge in coda un nodo non ancora presente assegnandogli il primo
+     * indice libero e aggiunge alla matrice la riga e la colonna corrispondenti.
+     */
+    private void insertNode(GraphNode<L> node) {
+        int index = nodesList.size();
+        nodesIndex.put(node, index);
+        labelsIndex.put(node.getLabel(), node);
+        nodesList.add(node);
         matrix.add(index, new ArrayList<>());
-        nodesIndex.put(new GraphNode<L>(label), index);
         for (int i = 0; i < index; i++) {
             matrix.get(index).add(null);
         }
         for (int i = 0; i < matrix.size(); i++) {
             matrix.get(i).add(null);
         }
-        index++;
-        return true;
     }
 
     /*
@@ -162,16 +329,7 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         if (!nodesIndex.containsKey(node)) {
             throw new IllegalArgumentException("Node not in map");
         }
-        int pos = nodesIndex.remove(node);
-        matrix.remove(pos);
-        Iterator<GraphNode<L>> mapItr = nodesIndex.keySet().iterator();
-        for (int i = 0; i < nodesIndex.size(); i++) {
-            nodesIndex.put(mapItr.next(), i);
-        }
-        for (int i = 0; i < matrix.size(); i++) {
-            matrix.get(i).remove(pos);
-        }
-        index--;
+        removeNodeAt(nodesIndex.get(node));
     }
 
     /*
@@ -184,19 +342,11 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         if (label == null) {
             throw new NullPointerException("Label is null");
         }
-        if (getNode(label) == null) {
+        GraphNode<L> node = labelsIndex.get(label);
+        if (node == null) {
             throw new IllegalArgumentException("Node not in map");
         }
-        int pos = nodesIndex.remove(getNode(label));
-        matrix.remove(pos);
-        Iterator<GraphNode<L>> mapItr = nodesIndex.keySet().iterator();
-        for (int i = 0; i < nodesIndex.size(); i++) {
-            nodesIndex.put(mapItr.next(), i);
-        }
-        for (int i = 0; i < matrix.size(); i++) {
-            matrix.get(i).remove(pos);
-        }
-        index--;
+        removeNodeAt(nodesIndex.get(node));
     }
 
     /*
@@ -206,19 +356,189 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
      */
     @Override
     public void removeNode(int i) {
-        if(i < 0 || i > nodesIndex.size()) {
+        if(i < 0 || i >= nodesIndex.size()) {
             throw new IndexOutOfBoundsException("Index is out of bounds");
         }
-        int pos = nodesIndex.remove(getNode(i));
+        removeNodeAt(i);
+    }
+
+    /*
+     * Cancella il nodo di indice pos con la riga e la colonna corrispondenti
+     * e decrementa di uno gli indici dei nodi successivi, preservando l'ordine
+     * di inserimento.
+     */
+    private void removeNodeAt(int pos) {
+        if (rowScans != null) {
+            rowScans.increment();
+            renumberedNodes.add(nodesList.size() - 1 - pos);
+        }
+        for (GraphEdge<L> edge : matrix.get(pos)) {
+            if (edge != null) {
+                edgesSet.remove(edge);
+                edgeCounter--;
+            }
+        }
+        GraphNode<L> removed = nodesList.remove(pos);
+        nodesIndex.remove(removed);
+        labelsIndex.remove(removed.getLabel());
+        for (int k = pos; k < nodesList.size(); k++) {
+            nodesIndex.put(nodesList.get(k), k);
+        }
         matrix.remove(pos);
-        Iterator<GraphNode<L>> mapItr = nodesIndex.keySet().iterator();
-        for (int j = 0; j < nodesIndex.size(); j++) {
-            nodesIndex.put(mapItr.next(), j);
+        for (int i = 0; i < matrix.size(); i++) {
+            matrix.get(i).remove(pos);
+        }
+    }
+
+    /**
+     * Cancella il nodo di indice i spostando l'ultimo nodo, con la sua riga e
+     * la sua colonna, nella posizione liberata. Gli indici di tutti gli altri
+     * nodi restano invariati, per cui il costo è O(n) invece dell'O(n²) di
+     * removeNode, ma l'ordine degli indici non segue più l'ordine di
+     * inserimento.
+     *
+     * @param i
+     *              l'indice del nodo da cancellare
+     * @return il vecchio indice del nodo che ora ha indice i, cioè
+     *         nodeCount() prima della cancellazione meno uno, oppure -1 se il
+     *         nodo cancellato era l'ultimo e nessun nodo è stato spostato
+     * @throw IndexOutOfBoundsException se l'indice non corrisponde a un nodo
+     */
+    public int swapRemoveNode(int i) {
+        if (i < 0 || i >= nodesIndex.size()) {
+            throw new IndexOutOfBoundsException("Index is out of bounds");
         }
-        for (int x = 0; x < matrix.size(); x++) {
-            matrix.get(x).remove(pos);
+        int last = nodesList.size() - 1;
+        if (rowScans != null) {
+            rowScans.increment();
+            renumberedNodes.add(i == last ? 0 : 1);
+        }
+        ArrayList<GraphEdge<L>> row = matrix.get(i);
+        for (int k = 0; k <= last; k++) {
+            if (row.get(k) != null) {
+                clearCell(i, k);
+            }
+        }
+        GraphNode<L> removed = nodesList.get(i);
+        nodesIndex.remove(removed);
+        labelsIndex.remove(removed.getLabel());
+        if (i != last) {
+            // la riga e la colonna dell'ultimo nodo vengono copiate in quelle
+            // di i, che ora sono vuote; il cappio dell'ultimo nodo diventa la
+            // cella i,i
+            ArrayList<GraphEdge<L>> lastRow = matrix.get(last);
+            for (int k = 0; k < last; k++) {
+                GraphEdge<L> edge = lastRow.get(k);
+                if (edge != null) {
+                    row.set(k, edge);
+                    matrix.get(k).set(i, edge);
+                }
+            }
+            row.set(i, lastRow.get(last));
+            GraphNode<L> moved = nodesList.get(last);
+            nodesList.set(i, moved);
+            nodesIndex.put(moved, i);
+        }
+        nodesList.remove(last);
+        matrix.remove(last);
+        for (ArrayList<GraphEdge<L>> r : matrix) {
+            r.remove(last);
+        }
+        return i == last ? -1 : last;
+    }
+
+    /**
+     * Cancella il nodo dato spostando l'ultimo nodo nella posizione liberata,
+     * come {@link #swapRemoveNode(int)}.
+     *
+     * @param node
+     *                 il nodo da cancellare
+     * @return il vecchio indice del nodo che ora ha l'indice del nodo
+     *         cancellato, oppure -1 se nessun nodo è stato spostato
+     * @throw NullPointerException se il nodo è null
+     * @throw IllegalArgumentException se il nodo non esiste
+     */
+    public int swapRemoveNode(GraphNode<L> node) {
+        if (node == null) {
+            throw new NullPointerException("Node is null");
+        }
+        Integer index = nodesIndex.get(node);
+        if (index == null) {
+            throw new IllegalArgumentException("Node not in map");
+        }
+        return swapRemoveNode(index);
+    }
+
+    /**
+     * Cancella tutti i nodi dati, con i loro archi, e rinumera i nodi rimasti
+     * da 0 preservandone l'ordine, come farebbero chiamate successive di
+     * removeNode. La matrice viene compattata una sola volta, in tempo O(n²)
+     * indipendentemente dal numero di nodi cancellati.
+     *
+     * @param nodes
+     *                  i nodi da cancellare
+     * @throw NullPointerException se la collezione o uno dei nodi sono null
+     * @throw IllegalArgumentException se uno dei nodi non esiste; in questo
+     *        caso il grafo non viene modificato
+     */
+    public void removeNodes(Collection<GraphNode<L>> nodes) {
+        if (nodes == null) {
+            throw new NullPointerException("Collection is null");
+        }
+        int n = nodesList.size();
+        boolean[] removed = new boolean[n];
+        for (GraphNode<L> node : nodes) {
+            if (node == null) {
+                throw new NullPointerException("Node is null");
+            }
+            Integer index = nodesIndex.get(node);
+            if (index == null) {
+                throw new IllegalArgumentException("Node not in map");
+            }
+            removed[index] = true;
+        }
+        if (rowScans != null) {
+            rowScans.add(n);
+        }
+        for (int i = 0; i < n; i++) {
+            if (!removed[i]) {
+                continue;
+            }
+            for (GraphEdge<L> edge : matrix.get(i)) {
+                if (edge != null && edgesSet.remove(edge)) {
+                    edgeCounter--;
+                }
+            }
+            GraphNode<L> node = nodesList.get(i);
+            nodesIndex.remove(node);
+            labelsIndex.remove(node.getLabel());
+        }
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            if (removed[i]) {
+                continue;
+            }
+            ArrayList<GraphEdge<L>> row = matrix.get(i);
+            int end = 0;
+            for (int k = 0; k < n; k++) {
+                if (!removed[k]) {
+                    row.set(end++, row.get(k));
+                }
+            }
+            row.subList(end, n).clear();
+            if (kept != i) {
+                GraphNode<L> node = nodesList.get(i);
+                matrix.set(kept, row);
+                nodesList.set(kept, node);
+                nodesIndex.put(node, kept);
+                if (renumberedNodes != null) {
+                    renumberedNodes.increment();
+                }
+            }
+            kept++;
         }
-        index--;
+        matrix.subList(kept, n).clear();
+        nodesList.subList(kept, n).clear();
     }
 
     @Override
@@ -226,12 +546,10 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         if (node == null) {
             throw new NullPointerException("Node is null");
         }
-        for (GraphNode<L> returnNode : nodesIndex.keySet()) {
-            if (returnNode.equals(node)) {
-                return returnNode;
-            }
+        if (nodeLookups != null) {
+            nodeLookups.increment();
         }
-        return null;
+        return labelsIndex.get(node.getLabel());
     }
 
     @Override
@@ -239,12 +557,10 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         if (label == null) {
             throw new NullPointerException("Label is null");
         }
-        for (GraphNode<L> returnNode : nodesIndex.keySet()) {
-            if (returnNode.getLabel().equals(label)) {
-                return returnNode;
-            }
+        if (nodeLookups != null) {
+            nodeLookups.increment();
         }
-        return null;
+        return labelsIndex.get(label);
     }
 
     @Override
@@ -252,12 +568,7 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         if (i < 0 || i >= nodesIndex.size()) {
             throw new IndexOutOfBoundsException("Index is out of bounds");
         }
-        for (GraphNode<L> returnNode : nodesIndex.keySet()) {
-            if (nodesIndex.get(returnNode) == i) {
-                return returnNode;
-            }
-        }
-        return null;
+        return nodesList.get(i);
     }
 
     @Override
@@ -276,10 +587,11 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         if (label == null) {
             throw new NullPointerException("Label is null");
         }
-        if (getNode(label) == null) {
+        GraphNode<L> node = labelsIndex.get(label);
+        if (node == null) {
             throw new IllegalArgumentException("Node with given label not in map");
         }
-        return nodesIndex.get(getNode(label));
+        return nodesIndex.get(node);
     }
 
     @Override
@@ -307,10 +619,7 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
                 return false;
             }
         }
-        matrix.get(i).remove(j);
-        matrix.get(i).add(j, edge);
-        matrix.get(j).remove(i);
-        matrix.get(j).add(i, edge);
+        putEdge(i, j, edge);
         return true;
     }
 
@@ -330,10 +639,7 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
                 return false;
             }
         }
-        matrix.get(i).remove(j);
-        matrix.get(i).add(j, edge);
-        matrix.get(j).remove(i);
-        matrix.get(j).add(i, edge);
+        putEdge(i, j, edge);
         return true;
     }
 
@@ -353,10 +659,7 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
                 return false;
             }
         }
-        matrix.get(i).remove(j);
-        matrix.get(i).add(j, edge);
-        matrix.get(j).remove(i);
-        matrix.get(j).add(i, edge);
+        putEdge(i, j, edge);
         return true;
     }
 
@@ -376,10 +679,7 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
                 return false;
             }
         }
-        matrix.get(i).remove(j);
-        matrix.get(i).add(j, edge);
-        matrix.get(j).remove(i);
-        matrix.get(j).add(i, edge);
+        putEdge(i, j, edge);
         return true;
     }
 
@@ -399,10 +699,7 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
                 return false;
             }
         }
-        matrix.get(i).remove(j);
-        matrix.get(i).add(j, edge);
-        matrix.get(j).remove(i);
-        matrix.get(j).add(i, edge);
+        putEdge(i, j, edge);
         return true;
     }
 
@@ -417,10 +714,7 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         GraphNode<L> node1 = getNode(i);
         GraphNode<L> node2 = getNode(j);
         GraphEdge<L> edge = new GraphEdge<>(node1, node2, false);
-        matrix.get(i).remove(j);
-        matrix.get(i).add(j, edge);
-        matrix.get(j).remove(i);
-        matrix.get(j).add(i, edge);
+        putEdge(i, j, edge);
         return true;
     }
 
@@ -435,13 +729,14 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         GraphNode<L> node1 = getNode(i);
         GraphNode<L> node2 = getNode(j);
         GraphEdge<L> edge = new GraphEdge<>(node1, node2, false, weight);
-        matrix.get(i).remove(j);
-        matrix.get(i).add(j, edge);
-        matrix.get(j).remove(i);
-        matrix.get(j).add(i, edge);
+        putEdge(i, j, edge);
         return true;
     }
 
+    /*
+     * Gli estremi dell'arco individuano direttamente la cella della matrice,
+     * quindi la cancellazione costa O(1)
+     */
     @Override
     public void removeEdge(GraphEdge<L> edge) {
         if (edge == null) {
@@ -452,8 +747,34 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         }
         int i = nodesIndex.get(edge.getNode1());
         int j = nodesIndex.get(edge.getNode2());
-        matrix.get(i).set(j, null);
-        matrix.get(j).set(i, null);
+        clearCell(i, j);
+    }
+
+    /**
+     * Cancella tutti gli archi dati. La presenza di ogni arco è controllata
+     * prima di modificare il grafo, poi ogni arco viene tolto dalla sua cella
+     * in tempo costante. Un arco ripetuto nella collezione viene cancellato
+     * una sola volta.
+     *
+     * @param edges
+     *                  gli archi da cancellare
+     * @throw NullPointerException se la collezione o uno degli archi sono
+     *        null
+     * @throw IllegalArgumentException se uno degli archi non esiste nel
+     *        grafo; in questo caso il grafo non viene modificato
+     */
+    public void removeEdges(Collection<GraphEdge<L>> edges) {
+        if (edges == null) {
+            throw new NullPointerException("Collection is null");
+        }
+        for (GraphEdge<L> edge : edges) {
+            if (!containsEdge(edge)) {
+                throw new IllegalArgumentException("Edge not in matrix: " + edge);
+            }
+        }
+        for (GraphEdge<L> edge : edges) {
+            clearCell(nodesIndex.get(edge.getNode1()), nodesIndex.get(edge.getNode2()));
+        }
     }
 
     @Override
@@ -466,8 +787,7 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         }
         int i = nodesIndex.get(node1);
         int j = nodesIndex.get(node2);
-        matrix.get(i).set(j, null);
-        matrix.get(j).set(i, null);
+        clearCell(i, j);
     }
 
     @Override
@@ -480,8 +800,7 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         }
         int i = nodesIndex.get(getNode(label1));
         int j = nodesIndex.get(getNode(label2));
-        matrix.get(i).set(j, null);
-        matrix.get(j).set(i, null);
+        clearCell(i, j);
     }
 
     @Override
@@ -492,26 +811,71 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         if (getNode(i) == null || getNode(j) == null) {
             throw new IndexOutOfBoundsException("Edge not in matrix");
         }
-        matrix.get(i).set(j, null);
-        matrix.get(j).set(i, null);
+        clearCell(i, j);
     }
 
+    /*
+     * L'arco uguale a quello dato può stare solo nella cella individuata dagli
+     * indici dei suoi estremi, quindi la ricerca costa O(1). Viene restituito
+     * l'oggetto memorizzato nella matrice.
+     */
     @Override
     public GraphEdge<L> getEdge(GraphEdge<L> edge) {
         if (edge == null) {
             throw new NullPointerException("Edge is null");
         }
-        if (getNode(edge.getNode1()) == null || getNode(edge.getNode2()) == null) {
+        Integer i = nodesIndex.get(edge.getNode1());
+        Integer j = nodesIndex.get(edge.getNode2());
+        if (i == null || j == null) {
             throw new IllegalArgumentException("One of the nodes not in map");
         }
-        for (ArrayList<GraphEdge<L>> list : this.matrix) {
-            for (GraphEdge<L> edge1 : list) {
-                if (edge.equals(edge1)) {
-                    return edge;
-                }
+        GraphEdge<L> stored = matrix.get(i).get(j);
+        return stored != null && stored.equals(edge) ? stored : null;
+    }
+
+    /**
+     * Determina se il grafo contiene un arco uguale a quello dato, in tempo
+     * costante.
+     *
+     * @param edge
+     *                 l'arco da cercare
+     * @return true se l'arco esiste nel grafo, false se non esiste o se uno
+     *         dei suoi estremi non è un nodo del grafo
+     * @throw NullPointerException se l'arco è null
+     */
+    public boolean containsEdge(GraphEdge<L> edge) {
+        if (edge == null) {
+            throw new NullPointerException("Edge is null");
+        }
+        Integer i = nodesIndex.get(edge.getNode1());
+        Integer j = nodesIndex.get(edge.getNode2());
+        if (i == null || j == null) {
+            return false;
+        }
+        GraphEdge<L> stored = matrix.get(i).get(j);
+        return stored != null && stored.equals(edge);
+    }
+
+    /**
+     * Determina se il grafo contiene tutti gli archi dati, controllando ogni
+     * arco in tempo costante.
+     *
+     * @param edges
+     *                  gli archi da cercare
+     * @return true se tutti gli archi esistono nel grafo
+     * @throw NullPointerException se la collezione o uno degli archi sono
+     *        null
+     */
+    public boolean containsEdges(Collection<GraphEdge<L>> edges) {
+        if (edges == null) {
+            throw new NullPointerException("Collection is null");
+        }
+        for (GraphEdge<L> edge : edges) {
+            if (!containsEdge(edge)) {
+                return false;
             }
         }
-        return null;
+        return true;
     }
 
     @Override
@@ -556,17 +920,11 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         if (node == null) {
             throw new NullPointerException("Node is null");
         }
-        if (getNode(node) == null) {
+        Integer i = nodesIndex.get(node);
+        if (i == null) {
             throw new IllegalArgumentException("Node not in map");
         }
-        Set<GraphNode<L>> returnSet = new HashSet<>();
-        Set<GraphNode<L>> set = getNodes();
-        for (GraphNode<L> mapNode : set){
-            if (getEdge(node, mapNode) != null) {
-                returnSet.add(mapNode);
-            }
-        }
-        return returnSet;
+        return adjacentNodesAt(i);
     }
 
     @Override
@@ -574,17 +932,11 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         if (label == null) {
             throw new NullPointerException("Label is null");
         }
-        if (getNode(label) == null) {
+        GraphNode<L> node = labelsIndex.get(label);
+        if (node == null) {
             throw new IllegalArgumentException("Node not in map");
         }
-        Set<GraphNode<L>> returnSet = new HashSet<>();
-        Set<GraphNode<L>> set = getNodes();
-        for (GraphNode<L> mapNode : set) {
-            if (getEdge(label, mapNode.getLabel()) != null) {
-                returnSet.add(mapNode);
-            }
-        }
-        return returnSet;
+        return adjacentNodesAt(nodesIndex.get(node));
     }
 
     @Override
@@ -592,17 +944,78 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         if (i < 0 || i >= nodesIndex.size()) {
             throw new IndexOutOfBoundsException("Index out of bound");
         }
-        if (getNode(i) == null) {
-            throw new IndexOutOfBoundsException("Node not in map");
+        return adjacentNodesAt(i);
+    }
+
+    /**
+     * Esegue l'operazione data su ogni nodo adiacente al nodo di indice i,
+     * passandole l'indice dell'adiacente e il peso dell'arco, NaN se l'arco
+     * non è pesato. La riga della matrice viene letta direttamente, in tempo
+     * O(n) e senza creare oggetti. Il grafo non deve essere modificato
+     * durante la visita.
+     *
+     * @param i
+     *                   l'indice del nodo
+     * @param action
+     *                   l'operazione da eseguire su ogni adiacente
+     * @throw NullPointerException se l'operazione è null
+     * @throw IndexOutOfBoundsException se l'indice non corrisponde a un nodo
+     */
+    @Override
+    public void forEachNeighbor(int i, IntDoubleConsumer action) {
+        if (action == null) {
+            throw new NullPointerException("Action is null");
         }
-        Set<GraphNode<L>> returnSet = new HashSet<>();
-        Set<GraphNode<L>> set = getNodes();
-        for (GraphNode<L> mapNode : set) {
-            if (getEdge(getNode(i), mapNode) != null) {
-                returnSet.add(mapNode);
+        if (i < 0 || i >= nodesIndex.size()) {
+            throw new IndexOutOfBoundsException("Index out of bound");
+        }
+        if (rowScans != null) {
+            rowScans.increment();
+        }
+        ArrayList<GraphEdge<L>> row = matrix.get(i);
+        for (int j = 0, n = row.size(); j < n; j++) {
+            GraphEdge<L> edge = row.get(j);
+            if (edge != null) {
+                action.accept(j, edge.getWeight());
             }
         }
-        return returnSet;
+    }
+
+    /**
+     * Restituisce il primo nodo adiacente al nodo di indice i con indice
+     * maggiore o uguale a from. Permette di scorrere gli adiacenti senza
+     * creare oggetti, anche riprendendo la scansione in un secondo momento
+     * come in una visita in profondità iterativa:
+     *
+     * <pre>
+     * for (int j = g.nextNeighbor(i, 0); j != -1; j = g.nextNeighbor(i, j + 1)) {
+     *     ...
+     * }
+     * </pre>
+     *
+     * Una scansione completa della riga costa O(n).
+     *
+     * @param i
+     *                 l'indice del nodo
+     * @param from
+     *                 l'indice da cui iniziare la ricerca, da 0 a nodeCount()
+     * @return l'indice del primo adiacente a partire da from, -1 se non ce ne
+     *         sono
+     * @throw IndexOutOfBoundsException se i non corrisponde a un nodo o from
+     *        non è compreso tra 0 e nodeCount()
+     */
+    public int nextNeighbor(int i, int from) {
+        int n = nodesIndex.size();
+        if (i < 0 || i >= n || from < 0 || from > n) {
+            throw new IndexOutOfBoundsException("Index out of bound");
+        }
+        ArrayList<GraphEdge<L>> row = matrix.get(i);
+        for (int j = from; j < n; j++) {
+            if (row.get(j) != null) {
+                return j;
+            }
+        }
+        return -1;
     }
 
     @Override
@@ -628,15 +1041,11 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         if (node == null) {
             throw new NullPointerException("Node is null");
         }
-        if (getNode(node) == null) {
+        Integer i = nodesIndex.get(node);
+        if (i == null) {
             throw new IllegalArgumentException("Node not in map");
         }
-        Set<GraphEdge<L>> returnSet = new HashSet<>();
-        Set<GraphNode<L>> set = getAdjacentNodesOf(node);
-        for (GraphNode<L> mapNode : set) {
-            returnSet.add(getEdge(node, mapNode));
-        }
-        return returnSet;
+        return edgesAt(i);
     }
 
     @Override
@@ -644,15 +1053,11 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         if (label == null) {
             throw new NullPointerException("Label is null");
         }
-        if (getNode(label) == null) {
+        GraphNode<L> node = labelsIndex.get(label);
+        if (node == null) {
             throw new IllegalArgumentException("Node not in map");
         }
-        Set<GraphEdge<L>> returnSet = new HashSet<>();
-        Set<GraphNode<L>> set = getAdjacentNodesOf(label);
-        for (GraphNode<L> mapNode : set) {
-            returnSet.add(getEdge(label, mapNode.getLabel()));
-        }
-        return returnSet;
+        return edgesAt(nodesIndex.get(node));
     }
 
     @Override
@@ -660,15 +1065,7 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         if (i < 0 || i >= nodesIndex.size()) {
             throw new IndexOutOfBoundsException("Index out of bound");
         }
-        if (getNode(i) == null) {
-            throw new IndexOutOfBoundsException("Node not in map");
-        }
-        Set<GraphEdge<L>> returnSet = new HashSet<>();
-        Set<GraphNode<L>> set = getAdjacentNodesOf(i);
-        for (GraphNode<L> mapNode : set) {
-            returnSet.add(getEdge(getNode(i), mapNode));
-        }
-        return returnSet;
+        return edgesAt(i);
     }
 
     @Override
@@ -689,16 +1086,79 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
                 "Operazione non supportata in un grafo non orientato");
     }
 
+    /*
+     * Restituisce una vista non modificabile dell'insieme degli archi, che
+     * riflette le modifiche successive del grafo senza essere ricostruita ad
+     * ogni chiamata.
+     */
     @Override
     public Set<GraphEdge<L>> getEdges() {
-        Set<GraphEdge<L>> edges = new HashSet<>();
-        for (int i = 0; i < nodeCount(); i++) {
-            for (int j = 0; j < nodeCount(); j++) {
-                if (matrix.get(i).get(j) != null) {
-                    edges.add(matrix.get(i).get(j));
-                }
+        return edgesView;
+    }
+
+    /*
+     * Inserisce l'arco nelle posizioni i,j e j,i della matrice sostituendo
+     * quello eventualmente presente e aggiorna il contatore e l'insieme degli
+     * archi.
+     */
+    private void putEdge(int i, int j, GraphEdge<L> edge) {
+        GraphEdge<L> old = matrix.get(i).get(j);
+        if (old != null) {
+            edgesSet.remove(old);
+        } else {
+            edgeCounter++;
+        }
+        matrix.get(i).set(j, edge);
+        matrix.get(j).set(i, edge);
+        edgesSet.add(edge);
+    }
+
+    /*
+     * Restituisce i nodi adiacenti al nodo di indice i con una sola
+     * scansione della sua riga
+     */
+    private Set<GraphNode<L>> adjacentNodesAt(int i) {
+        if (rowScans != null) {
+            rowScans.increment();
+        }
+        Set<GraphNode<L>> returnSet = new HashSet<>();
+        ArrayList<GraphEdge<L>> row = matrix.get(i);
+        for (int j = 0, n = row.size(); j < n; j++) {
+            if (row.get(j) != null) {
+                returnSet.add(nodesList.get(j));
+            }
+        }
+        return returnSet;
+    }
+
+    /*
+     * Restituisce gli archi del nodo di indice i con una sola scansione della
+     * sua riga
+     */
+    private Set<GraphEdge<L>> edgesAt(int i) {
+        if (rowScans != null) {
+            rowScans.increment();
+        }
+        Set<GraphEdge<L>> returnSet = new HashSet<>();
+        for (GraphEdge<L> edge : matrix.get(i)) {
+            if (edge != null) {
+                returnSet.add(edge);
             }
         }
-        return edges;
+        return returnSet;
+    }
+
+    /*
+     * Cancella l'arco eventualmente presente nelle posizioni i,j e j,i della
+     * matrice e aggiorna il contatore e l'insieme degli archi.
+     */
+    private void clearCell(int i, int j) {
+        GraphEdge<L> old = matrix.get(i).get(j);
+        if (old != null) {
+            edgesSet.remove(old);
+            edgeCounter--;
+        }
+        matrix.get(i).set(j, null);
+        matrix.get(j).set(i, null);
     }
 }
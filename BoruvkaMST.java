@@ -0,0 +1,141 @@
+package it.unicam.cs.asdl2324.mp2;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Classe che implementa l'algoritmo di Borůvka per trovare un Minimum
+ * Spanning Tree di un grafo non orientato, pesato e con pesi non negativi.
+ *
+ * L'algoritmo procede per fasi: in ogni fase ogni componente trova l'arco di
+ * peso minimo che la collega a un'altra componente e tutti questi archi
+ * vengono aggiunti all'albero, fondendo le componenti che collegano. Le fasi
+ * sono al più logaritmiche nel numero di nodi perché ogni fase almeno dimezza
+ * il numero di componenti.
+ *
+ * Sia la ricerca degli archi minimi sia la fusione delle componenti sono
+ * eseguite in parallelo sul pool fork/join comune: gli archi minimi sono
+ * aggiornati con operazioni compare-and-set e le componenti sono gestite da
+ * una {@code ConcurrentIntDisjointSets}.
+ *
+ * Gli archi di peso uguale sono confrontati secondo l'ordine in cui li
+ * restituisce getEdges(), come fa {@code KruskalMST<L>}: con questo ordine
+ * totale l'albero di copertura minimo è unico e il risultato coincide con
+ * quello di {@code KruskalMST.computeMSP} sullo stesso grafo.
+ *
+ * @param <L>
+ *                tipo delle etichette dei nodi del grafo
+ */
+public class BoruvkaMST<L> {
+
+    /*
+     * Valore che indica l'assenza di un arco minimo per una componente
+     */
+    private static final int NONE = -1;
+
+    /**
+     * Costruisce un calcolatore di un albero di copertura minimo che usa
+     * l'algoritmo di Borůvka su un grafo non orientato e pesato.
+     */
+    public BoruvkaMST() {
+    }
+
+    /**
+     * Utilizza l'algoritmo di Borůvka parallelo per trovare un albero di
+     * copertura minimo in un grafo non orientato e pesato, con pesi degli
+     * archi non negativi. Se il grafo non è connesso restituisce una foresta
+     * di copertura minima.
+     *
+     * @param g
+     *              un grafo non orientato, pesato, con pesi non negativi
+     * @return l'insieme degli archi del grafo g che costituiscono l'albero di
+     *         copertura minimo trovato
+     * @throw NullPointerException se il grafo g è null
+     * @throw IllegalArgumentException se il grafo g è orientato, non pesato o
+     *        con pesi negativi
+     */
+    public Set<GraphEdge<L>> computeMSP(Graph<L> g) {
+        validateGraph(g);
+        WeightedEdgeArrays edges = WeightedEdgeArrays.ofNonNegative(g);
+        int n = g.nodeCount();
+        ConcurrentIntDisjointSets components = new ConcurrentIntDisjointSets(n);
+        AtomicIntegerArray cheapest = new AtomicIntegerArray(n);
+        boolean[] inTree = new boolean[edges.size()];
+        int[] alive = new int[edges.size()];
+        for (int k = 0; k < alive.length; k++) {
+            alive[k] = k;
+        }
+        int aliveCount = alive.length;
+        while (aliveCount > 0) {
+            for (int i = 0; i < n; i++) {
+                cheapest.set(i, NONE);
+            }
+            final int[] current = alive;
+            IntStream.range(0, aliveCount).parallel().forEach(k -> {
+                int e = current[k];
+                int root1 = components.findSet(edges.source(e));
+                int root2 = components.findSet(edges.target(e));
+                if (root1 != root2) {
+                    offer(cheapest, root1, e, edges);
+                    offer(cheapest, root2, e, edges);
+                }
+            });
+            IntStream.range(0, n).parallel().forEach(root -> {
+                int e = cheapest.get(root);
+                if (e != NONE && components.union(edges.source(e), edges.target(e))) {
+                    inTree[e] = true;
+                }
+            });
+            aliveCount = compact(alive, aliveCount, edges, components);
+        }
+        Set<GraphEdge<L>> mst = new HashSet<>();
+        for (int e = 0; e < inTree.length; e++) {
+            if (inTree[e]) {
+                mst.add(g.getEdge(edges.source(e), edges.target(e)));
+            }
+        }
+        return mst;
+    }
+
+    /*
+     * Propone l'arco e come arco minimo della componente con radice root,
+     * sostituendo quello attuale solo se e lo precede
+     */
+    private static void offer(AtomicIntegerArray cheapest, int root, int e, WeightedEdgeArrays edges) {
+        while (true) {
+            int current = cheapest.get(root);
+            if (current != NONE && !edges.precedes(e, current)) {
+                return;
+            }
+            if (cheapest.compareAndSet(root, current, e)) {
+                return;
+            }
+        }
+    }
+
+    /*
+     * Compatta all'inizio di alive gli archi che collegano ancora componenti
+     * diverse e ne restituisce il numero
+     */
+    private static int compact(int[] alive, int aliveCount, WeightedEdgeArrays edges,
+            ConcurrentIntDisjointSets components) {
+        int end = 0;
+        for (int k = 0; k < aliveCount; k++) {
+            int e = alive[k];
+            if (!components.sameSet(edges.source(e), edges.target(e))) {
+                alive[end++] = e;
+            }
+        }
+        return end;
+    }
+
+    private void validateGraph(Graph<L> g) {
+        if (g == null) {
+            throw new NullPointerException("Il grafo non può essere null");
+        }
+        if (g.isDirected()) {
+            throw new IllegalArgumentException("Il grafo deve essere non orientato");
+        }
+    }
+}
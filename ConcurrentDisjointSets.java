@@ -0,0 +1,186 @@
+package it.unicam.cs.asdl2324.mp2;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Implementazione dell'interfaccia <code>DisjointSets<E></code> che può
+ * essere condivisa tra più thread. Ad ogni elemento è associato al momento
+ * del makeSet un indice intero e le operazioni sugli insiemi sono delegate a
+ * una {@code ConcurrentIntDisjointSets}, per cui findSet e union sono
+ * lock-free. L'associazione tra elementi e indici è una
+ * {@code ConcurrentHashMap}: isPresent non si blocca mai e makeSet blocca,
+ * per un tempo costante, solo i makeSet concorrenti di elementi che cadono
+ * nello stesso bucket della mappa.
+ *
+ * Il numero massimo di elementi è fissato alla costruzione. La presenza di un
+ * elemento è determinata secondo equals. I metodi che restituiscono insiemi
+ * di elementi scorrono tutti gli elementi e, se eseguiti in parallelo a delle
+ * unioni, restituiscono una fotografia non necessariamente atomica. Il metodo
+ * clear non deve essere eseguito in parallelo ad altre operazioni.
+ *
+ * @param <E>
+ *                il tipo degli elementi degli insiemi disgiunti
+ */
+public class ConcurrentDisjointSets<E> implements DisjointSets<E> {
+
+    /*
+     * Associazione di ogni elemento con il proprio indice. Le variabili sono
+     * protected unicamente per permettere i test JUnit.
+     */
+    protected ConcurrentHashMap<E, Integer> indices;
+
+    /*
+     * Elementi per indice; una posizione è null se l'indice non è ancora
+     * stato assegnato
+     */
+    protected AtomicReferenceArray<E> elements;
+
+    /*
+     * Prossimo indice da assegnare
+     */
+    protected AtomicInteger nextIndex;
+
+    /*
+     * Foresta degli indici
+     */
+    protected ConcurrentIntDisjointSets forest;
+
+    /**
+     * Costruisce una collezione vuota di insiemi disgiunti che può contenere
+     * al più il numero di elementi dato.
+     *
+     * @param capacity
+     *                     il numero massimo di elementi
+     * @throw IllegalArgumentException se capacity è negativo
+     */
+    public ConcurrentDisjointSets(int capacity) {
+        this.forest = new ConcurrentIntDisjointSets(capacity);
+        this.indices = new ConcurrentHashMap<>();
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.nextIndex = new AtomicInteger(0);
+    }
+
+    @Override
+    public boolean isPresent(E e) {
+        if (e == null) {
+            throw new NullPointerException("E is null");
+        }
+        return indices.containsKey(e);
+    }
+
+    /*
+     * L'indice viene riservato dentro computeIfAbsent, che esegue la funzione
+     * una sola volta per elemento: tra più makeSet concorrenti dello stesso
+     * elemento solo quello che inserisce l'associazione consuma un indice.
+     * L'elemento è scritto nella sua posizione prima che l'associazione sia
+     * pubblicata nella mappa, così un altro thread che trova l'elemento nella
+     * mappa ne vede anche la posizione.
+     */
+    @Override
+    public void makeSet(E e) {
+        if (e == null) {
+            throw new NullPointerException("L'elemento è nullo");
+        }
+        if (indices.containsKey(e)) {
+            throw new IllegalArgumentException("Il nodo con questo elemento è già presente");
+        }
+        boolean[] inserted = new boolean[1];
+        indices.computeIfAbsent(e, key -> {
+            int index = reserveIndex();
+            elements.set(index, key);
+            inserted[0] = true;
+            return index;
+        });
+        if (!inserted[0]) {
+            throw new IllegalArgumentException("Il nodo con questo elemento è già presente");
+        }
+    }
+
+    @Override
+    public E findSet(E e) {
+        if (e == null) {
+            throw new NullPointerException("L'elemento è null");
+        }
+        Integer index = indices.get(e);
+        if (index == null) {
+            return null;
+        }
+        return elements.get(forest.findSet(index));
+    }
+
+    @Override
+    public void union(E e1, E e2) {
+        if (e1 == null || e2 == null) {
+            throw new NullPointerException("One of the nodes is null");
+        }
+        Integer i = indices.get(e1);
+        Integer j = indices.get(e2);
+        if (i == null || j == null) {
+            throw new IllegalArgumentException("One of the nodes not in map");
+        }
+        forest.union(i, j);
+    }
+
+    @Override
+    public Set<E> getCurrentRepresentatives() {
+        Set<E> set = new HashSet<E>();
+        int size = Math.min(nextIndex.get(), forest.capacity());
+        for (int i = 0; i < size; i++) {
+            E element = elements.get(i);
+            if (element != null && forest.findSet(i) == i) {
+                set.add(element);
+            }
+        }
+        return set;
+    }
+
+    @Override
+    public Set<E> getCurrentElementsOfSetContaining(E e) {
+        if (e == null) {
+            throw new NullPointerException("E is null");
+        }
+        Integer index = indices.get(e);
+        if (index == null) {
+            throw new IllegalArgumentException("E not in set");
+        }
+        Set<E> set = new HashSet<E>();
+        int size = Math.min(nextIndex.get(), forest.capacity());
+        for (int i = 0; i < size; i++) {
+            E element = elements.get(i);
+            if (element != null && forest.sameSet(i, index)) {
+                set.add(element);
+            }
+        }
+        return set;
+    }
+
+    /*
+     * Riserva il prossimo indice libero senza superare la capacità, così un
+     * makeSet che fallisce per capacità esaurita non consuma indici
+     */
+    private int reserveIndex() {
+        while (true) {
+            int index = nextIndex.get();
+            if (index >= forest.capacity()) {
+                throw new IllegalStateException("Capacity exceeded");
+            }
+            if (nextIndex.compareAndSet(index, index + 1)) {
+                return index;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        int size = Math.min(nextIndex.get(), forest.capacity());
+        for (int i = 0; i < size; i++) {
+            elements.set(i, null);
+        }
+        indices.clear();
+        nextIndex.set(0);
+        forest.reset();
+    }
+}
@@ -0,0 +1,184 @@
+package it.unicam.cs.asdl2324.mp2;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Foresta di insiemi disgiunti sugli interi da 0 a capacity() - 1 che può
+ * essere usata contemporaneamente da più thread senza sincronizzazione
+ * esterna. Alla costruzione ogni elemento forma un insieme singoletto.
+ *
+ * I parent sono memorizzati in un {@code AtomicIntegerArray} e ogni modifica
+ * avviene con un'operazione compare-and-set, per cui nessun thread resta mai
+ * bloccato in attesa di un altro: findSet e union sono lock-free.
+ *
+ * Al posto dell'unione per rango, che richiederebbe di aggiornare in modo
+ * atomico due valori, si usa il collegamento casuale: ad ogni elemento è
+ * associata una priorità pseudocasuale fissa e la radice con priorità minore
+ * viene collegata sotto quella con priorità maggiore. L'altezza attesa degli
+ * alberi resta logaritmica. Il find-set applica la divisione del cammino
+ * (si veda {@code PathCompression.SPLITTING}), le cui scritture sono
+ * tentativi compare-and-set che possono fallire senza conseguenze.
+ */
+public class ConcurrentIntDisjointSets {
+
+    /*
+     * Parent di ogni elemento; una radice ha parent uguale a se stessa. La
+     * variabile è protected unicamente per permettere i test JUnit.
+     */
+    protected final AtomicIntegerArray parent;
+
+    /*
+     * Seme delle priorità usate per il collegamento casuale
+     */
+    private final int seed;
+
+    /**
+     * Costruisce una foresta di insiemi singoletto {0}, ..., {capacity - 1}.
+     *
+     * @param capacity
+     *                     il numero di elementi
+     * @throw IllegalArgumentException se capacity è negativo
+     */
+    public ConcurrentIntDisjointSets(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity is negative");
+        }
+        this.parent = new AtomicIntegerArray(capacity);
+        this.seed = (int) System.nanoTime();
+        reset();
+    }
+
+    /**
+     * Restituisce il numero di elementi.
+     *
+     * @return il numero di elementi
+     */
+    public int capacity() {
+        return parent.length();
+    }
+
+    /**
+     * Restituisce il rappresentante dell'insieme che contiene l'elemento dato.
+     * Se altri thread eseguono unioni in parallelo il rappresentante
+     * restituito era la radice dell'albero di i in un istante durante la
+     * chiamata.
+     *
+     * @param i
+     *              l'elemento
+     * @return il rappresentante dell'insieme che contiene i
+     * @throw IndexOutOfBoundsException se i non è un elemento
+     */
+    public int findSet(int i) {
+        checkElement(i);
+        while (true) {
+            int p = parent.get(i);
+            if (p == i) {
+                return i;
+            }
+            int grandParent = parent.get(p);
+            if (grandParent != p) {
+                parent.compareAndSet(i, p, grandParent);
+            }
+            i = p;
+        }
+    }
+
+    /**
+     * Unisce gli insiemi che contengono i due elementi dati.
+     *
+     * @param i
+     *              il primo elemento
+     * @param j
+     *              il secondo elemento
+     * @return true se questa chiamata ha unito due insiemi diversi, false se
+     *         i due elementi erano già nello stesso insieme
+     * @throw IndexOutOfBoundsException se uno dei due elementi non esiste
+     */
+    public boolean union(int i, int j) {
+        while (true) {
+            int root1 = findSet(i);
+            int root2 = findSet(j);
+            if (root1 == root2) {
+                return false;
+            }
+            if (precedes(root1, root2)) {
+                if (parent.compareAndSet(root1, root1, root2)) {
+                    return true;
+                }
+            } else {
+                if (parent.compareAndSet(root2, root2, root1)) {
+                    return true;
+                }
+            }
+            // una delle due radici è stata collegata da un altro thread:
+            // si riparte dalle nuove radici
+        }
+    }
+
+    /**
+     * Determina se due elementi stanno nello stesso insieme. La risposta è
+     * corretta rispetto a un istante durante la chiamata anche in presenza di
+     * unioni concorrenti.
+     *
+     * @param i
+     *              il primo elemento
+     * @param j
+     *              il secondo elemento
+     * @return true se i due elementi stanno nello stesso insieme
+     * @throw IndexOutOfBoundsException se uno dei due elementi non esiste
+     */
+    public boolean sameSet(int i, int j) {
+        while (true) {
+            int root1 = findSet(i);
+            int root2 = findSet(j);
+            if (root1 == root2) {
+                return true;
+            }
+            // se root1 è ancora una radice i due insiemi erano distinti quando
+            // è stata trovata root2
+            if (parent.get(root1) == root1) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Riporta tutti gli elementi a insiemi singoletto. Non deve essere
+     * eseguito in parallelo ad altre operazioni.
+     */
+    public void reset() {
+        for (int i = 0; i < parent.length(); i++) {
+            parent.set(i, i);
+        }
+    }
+
+    /*
+     * Ordine totale tra gli elementi usato per decidere quale radice
+     * collegare sotto l'altra: prima la priorità pseudocasuale, poi l'indice.
+     */
+    private boolean precedes(int i, int j) {
+        int priority1 = priority(i);
+        int priority2 = priority(j);
+        if (priority1 != priority2) {
+            return priority1 < priority2;
+        }
+        return i < j;
+    }
+
+    /*
+     * Priorità pseudocasuale fissa di un elemento, ottenuta mescolando i bit
+     * dell'indice con il seme
+     */
+    private int priority(int i) {
+        int h = (i ^ seed) * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        return h ^ (h >>> 13);
+    }
+
+    private void checkElement(int i) {
+        if (i < 0 || i >= parent.length()) {
+            throw new IndexOutOfBoundsException("Element not in forest");
+        }
+    }
+}
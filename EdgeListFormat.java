@@ -0,0 +1,40 @@
+package it.unicam.cs.asdl2324.mp2;
+
+/**
+ * Formati testuali di liste di archi pesati letti da {@code EdgeListReader} e
+ * scritti da {@code EdgeListWriter}.
+ */
+public enum EdgeListFormat {
+
+    /**
+     * Una riga per arco con le etichette dei due estremi e, facoltativamente,
+     * il peso, separati da virgole: {@code a,b,2.5}. Un arco senza peso non è
+     * pesato. I campi che contengono virgole, virgolette, a capo, spazi
+     * iniziali o finali o che iniziano una riga con {@code #} sono racchiusi
+     * tra virgolette, raddoppiando quelle interne; gli a capo tra virgolette
+     * fanno parte del campo. Le righe vuote o di soli spazi e tabulazioni e
+     * quelle che iniziano con {@code #} sono ignorate.
+     */
+    CSV,
+
+    /**
+     * Formato del 9th DIMACS Implementation Challenge ({@code .gr}): una riga
+     * {@code p sp n m} con il numero di nodi e di archi, seguita da m righe
+     * {@code a u v w} con gli estremi, numerati da 1, e il peso. Ogni arco
+     * non orientato è scritto come due archi orientati opposti. Le righe che
+     * iniziano con {@code c} sono commenti. In lettura sono accettate anche
+     * le righe {@code e u v} senza peso.
+     */
+    DIMACS,
+
+    /**
+     * Formato coordinate di Matrix Market: una riga
+     * {@code %%MatrixMarket matrix coordinate real symmetric}, una riga
+     * {@code n n nnz} con le dimensioni della matrice e il numero di elementi,
+     * seguita da nnz righe {@code i j v} con riga, colonna, numerate da 1, e
+     * peso. Ogni arco è scritto una sola volta nel triangolo inferiore. Il
+     * campo {@code pattern} indica archi non pesati. Le righe che iniziano con
+     * {@code %} sono commenti.
+     */
+    MATRIX_MARKET
+}
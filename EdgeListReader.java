@@ -0,0 +1,661 @@
+package it.unicam.cs.asdl2324.mp2;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Lettore in streaming di liste di archi pesati in uno dei formati di
+ * {@link EdgeListFormat}. Il canale viene letto a blocchi in un buffer di
+ * dimensione fissa e ogni riga viene analizzata direttamente nel buffer: i
+ * nodi e gli archi vengono aggiunti al grafo man mano che sono letti, per cui
+ * la memoria usata oltre a quella del grafo non dipende dalla lunghezza del
+ * file. L'unico vincolo è che ogni riga stia nel buffer.
+ *
+ * Nel formato CSV un campo tra virgolette può contenere degli a capo, come
+ * quelli scritti da {@code EdgeListWriter} per le etichette che li
+ * contengono: la riga prosegue fino al primo a capo esterno alle virgolette e
+ * deve stare tutta nel buffer. I numeri di riga dei messaggi di errore
+ * contano le righe fisiche del file.
+ *
+ * Nei formati DIMACS e Matrix Market i nodi sono identificati da numeri da 1
+ * a n e vengono aggiunti tutti, in ordine, appena letta l'intestazione,
+ * compresi quelli isolati; l'etichetta di ogni nodo è ottenuta applicando il
+ * decoder al suo numero. Nel formato CSV le etichette sono ottenute
+ * applicando il decoder ai campi e i nodi sono aggiunti quando compaiono per
+ * la prima volta.
+ *
+ * Un arco tra due nodi già collegati nel grafo, come il secondo dei due archi
+ * orientati con cui il formato DIMACS rappresenta un arco non orientato,
+ * viene ignorato.
+ */
+public class EdgeListReader {
+
+    /**
+     * Dimensione predefinita del buffer di lettura, in byte.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    /*
+     * Stati della scansione di una riga CSV: inizio della riga, inizio di un
+     * campo, campo senza virgolette, campo tra virgolette, virgolette
+     * appena lette in un campo tra virgolette, che possono chiuderlo o
+     * essere raddoppiate, e riga di commento
+     */
+    private static final int LINE_START = 0;
+
+    private static final int FIELD_START = 1;
+
+    private static final int UNQUOTED = 2;
+
+    private static final int QUOTED = 3;
+
+    private static final int QUOTE_IN_QUOTED = 4;
+
+    private static final int COMMENT = 5;
+
+    private final ReadableByteChannel channel;
+
+    private final EdgeListFormat format;
+
+    /*
+     * Buffer di lettura: i byte tra position e limit non sono ancora stati
+     * consumati
+     */
+    private final ByteBuffer buffer;
+
+    private final byte[] bytes;
+
+    /*
+     * Numero di byte dopo position già esaminati senza trovare un fine riga
+     */
+    private int scanned;
+
+    /*
+     * Stato della scansione CSV dei byte già esaminati della riga, che
+     * distingue gli a capo interni alle virgolette
+     */
+    private int csvState;
+
+    /*
+     * A capo interni alle virgolette trovati nella riga in esame e nella
+     * riga corrente
+     */
+    private int quotedBreaks;
+
+    private int currentBreaks;
+
+    private boolean endOfInput;
+
+    /*
+     * Riga corrente: i byte in [lineStart, lineEnd) di bytes, senza il fine
+     * riga, e posizione del cursore al suo interno
+     */
+    private int lineStart;
+
+    private int lineEnd;
+
+    private int cursor;
+
+    private long lineNumber;
+
+    /*
+     * Limiti dell'ultimo token letto dalla riga corrente
+     */
+    private int tokenStart;
+
+    private int tokenEnd;
+
+    /**
+     * Crea un lettore con un buffer di dimensione predefinita.
+     *
+     * @param channel
+     *                    il canale da cui leggere
+     * @param format
+     *                    il formato del contenuto
+     * @throw NullPointerException se uno dei parametri è null
+     */
+    public EdgeListReader(ReadableByteChannel channel, EdgeListFormat format) {
+        this(channel, format, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Crea un lettore con un buffer della dimensione data, che è anche la
+     * lunghezza massima di una riga.
+     *
+     * @param channel
+     *                       il canale da cui leggere
+     * @param format
+     *                       il formato del contenuto
+     * @param bufferSize
+     *                       la dimensione del buffer in byte
+     * @throw NullPointerException se il canale o il formato sono null
+     * @throw IllegalArgumentException se la dimensione del buffer non è
+     *        positiva
+     */
+    public EdgeListReader(ReadableByteChannel channel, EdgeListFormat format, int bufferSize) {
+        if (channel == null || format == null) {
+            throw new NullPointerException("Parametri null");
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        this.channel = channel;
+        this.format = format;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.bytes = buffer.array();
+        this.buffer.flip();
+        this.scanned = 0;
+        this.csvState = LINE_START;
+        this.quotedBreaks = 0;
+        this.currentBreaks = 0;
+        this.endOfInput = false;
+        this.lineNumber = 0;
+    }
+
+    /**
+     * Legge tutto il contenuto del canale aggiungendo nodi e archi al grafo
+     * dato. Il canale non viene chiuso.
+     *
+     * @param <L>
+     *                    tipo delle etichette dei nodi del grafo
+     * @param g
+     *                    il grafo non orientato da riempire
+     * @param decoder
+     *                    la funzione che converte un campo, o il numero di un
+     *                    nodo, in etichetta
+     * @return il numero di archi aggiunti al grafo
+     * @throw NullPointerException se uno dei parametri è null o se decoder
+     *        restituisce null
+     * @throw IllegalArgumentException se il grafo è orientato
+     * @throw IOException se il canale non può essere letto o il contenuto non
+     *        è nel formato atteso; il messaggio indica la riga
+     */
+    public <L> int readInto(Graph<L> g, Function<String, ? extends L> decoder) throws IOException {
+        if (g == null || decoder == null) {
+            throw new NullPointerException("Parametri null");
+        }
+        if (g.isDirected()) {
+            throw new IllegalArgumentException("Il grafo deve essere non orientato");
+        }
+        switch (format) {
+        case CSV:
+            return readCsv(g, decoder);
+        case DIMACS:
+            return readDimacs(g, decoder);
+        default:
+            return readMatrixMarket(g, decoder);
+        }
+    }
+
+    private <L> int readCsv(Graph<L> g, Function<String, ? extends L> decoder) throws IOException {
+        int added = 0;
+        while (nextLine()) {
+            if (isBlankLine() || bytes[lineStart] == '#') {
+                continue;
+            }
+            String first = nextField();
+            String second = nextField();
+            if (second == null) {
+                throw malformed("expected at least two fields");
+            }
+            String weight = nextField();
+            if (nextField() != null) {
+                throw malformed("expected at most three fields");
+            }
+            int i = indexOf(g, decoder.apply(first));
+            int j = indexOf(g, decoder.apply(second));
+            if (weight == null || weight.isEmpty()) {
+                added += addEdge(g, i, j, Double.NaN);
+            } else {
+                added += addEdge(g, i, j, parseWeight(weight));
+            }
+        }
+        return added;
+    }
+
+    private <L> int readDimacs(Graph<L> g, Function<String, ? extends L> decoder) throws IOException {
+        int[] index = null;
+        long declared = 0;
+        long read = 0;
+        int added = 0;
+        while (nextLine()) {
+            if (!nextToken() || bytes[tokenStart] == 'c') {
+                continue;
+            }
+            char kind = tokenEnd - tokenStart == 1 ? (char) bytes[tokenStart] : '?';
+            if (kind == 'p') {
+                if (index != null) {
+                    throw malformed("duplicate problem line");
+                }
+                if (!nextToken()) {
+                    throw malformed("missing problem type");
+                }
+                int n = nextNodeCount();
+                declared = nextCount();
+                expectEndOfLine();
+                index = addNodes(g, decoder, n);
+            } else if (kind == 'a' || kind == 'e') {
+                if (index == null) {
+                    throw malformed("edge before problem line");
+                }
+                int i = nextNode(index);
+                int j = nextNode(index);
+                double weight;
+                if (kind == 'a') {
+                    weight = nextWeight();
+                } else {
+                    weight = nextToken() ? parseWeight() : Double.NaN;
+                }
+                expectEndOfLine();
+                read++;
+                added += addEdge(g, i, j, weight);
+            } else {
+                throw malformed("unknown line type");
+            }
+        }
+        if (index == null) {
+            throw new IOException("Missing problem line");
+        }
+        if (read != declared) {
+            throw new IOException("Expected " + declared + " edges but read " + read);
+        }
+        return added;
+    }
+
+    private <L> int readMatrixMarket(Graph<L> g, Function<String, ? extends L> decoder)
+            throws IOException {
+        if (!nextLine() || !nextToken() || !tokenIs("%%MatrixMarket") || !nextToken()
+                || !tokenIs("matrix") || !nextToken() || !tokenIs("coordinate")) {
+            throw malformed("expected %%MatrixMarket matrix coordinate header");
+        }
+        if (!nextToken()) {
+            throw malformed("missing field");
+        }
+        boolean pattern = tokenIs("pattern");
+        if (!pattern && !tokenIs("real") && !tokenIs("integer")) {
+            throw malformed("unsupported field " + token());
+        }
+        if (!nextToken()) {
+            throw malformed("missing symmetry");
+        }
+        if (!tokenIs("symmetric") && !tokenIs("general")) {
+            throw malformed("unsupported symmetry " + token());
+        }
+        expectEndOfLine();
+        int[] index = null;
+        long declared = 0;
+        long read = 0;
+        int added = 0;
+        while (nextLine()) {
+            if (!nextToken() || bytes[tokenStart] == '%') {
+                continue;
+            }
+            cursor = tokenStart;
+            if (index == null) {
+                int rows = nextNodeCount();
+                int columns = nextCount();
+                declared = nextCount();
+                expectEndOfLine();
+                if (rows != columns) {
+                    throw malformed("matrix is not square");
+                }
+                index = addNodes(g, decoder, rows);
+            } else {
+                int i = nextNode(index);
+                int j = nextNode(index);
+                double weight = pattern ? Double.NaN : nextWeight();
+                expectEndOfLine();
+                read++;
+                added += addEdge(g, i, j, weight);
+            }
+        }
+        if (index == null) {
+            throw new IOException("Missing size line");
+        }
+        if (read != declared) {
+            throw new IOException("Expected " + declared + " entries but read " + read);
+        }
+        return added;
+    }
+
+    /*
+     * Aggiunge al grafo i nodi numerati da 1 a n e restituisce i loro indici
+     * nel grafo, in posizione pari al loro numero
+     */
+    private static <L> int[] addNodes(Graph<L> g, Function<String, ? extends L> decoder, int n) {
+        int[] index = new int[n + 1];
+        for (int k = 1; k <= n; k++) {
+            index[k] = indexOf(g, decoder.apply(Integer.toString(k)));
+        }
+        return index;
+    }
+
+    /*
+     * Restituisce l'indice del nodo con l'etichetta data, aggiungendolo se
+     * non è nel grafo
+     */
+    private static <L> int indexOf(Graph<L> g, L label) {
+        if (label == null) {
+            throw new NullPointerException("Decoded label is null");
+        }
+        if (g.getNode(label) == null) {
+            g.addNode(label);
+        }
+        return g.getNodeIndexOf(label);
+    }
+
+    /*
+     * Aggiunge l'arco se i nodi non sono già collegati e restituisce il
+     * numero di archi aggiunti
+     */
+    private static <L> int addEdge(Graph<L> g, int i, int j, double weight) {
+        if (g.getEdge(i, j) != null) {
+            return 0;
+        }
+        if (Double.isNaN(weight)) {
+            g.addEdge(i, j);
+        } else {
+            g.addWeightedEdge(i, j, weight);
+        }
+        return 1;
+    }
+
+    /*
+     * Rende corrente la riga successiva, leggendo dal canale quando il buffer
+     * non ne contiene una intera. Restituisce false alla fine del canale.
+     */
+    private boolean nextLine() throws IOException {
+        while (true) {
+            int start = buffer.position();
+            int limit = buffer.limit();
+            for (int p = start + scanned; p < limit; p++) {
+                if (bytes[p] == '\n' && (format != EdgeListFormat.CSV || csvState != QUOTED)) {
+                    setLine(start, p);
+                    buffer.position(p + 1);
+                    return true;
+                }
+                if (format == EdgeListFormat.CSV) {
+                    scanCsv(bytes[p]);
+                }
+            }
+            scanned = limit - start;
+            if (endOfInput) {
+                if (start == limit) {
+                    return false;
+                }
+                setLine(start, limit);
+                buffer.position(limit);
+                return true;
+            }
+            if (start == 0 && limit == buffer.capacity()) {
+                throw new IOException(
+                        "Line " + (lineNumber + 1 + currentBreaks) + " is longer than the buffer");
+            }
+            buffer.compact();
+            endOfInput = channel.read(buffer) < 0;
+            buffer.flip();
+        }
+    }
+
+    private void setLine(int start, int end) {
+        if (end > start && bytes[end - 1] == '\r') {
+            end--;
+        }
+        lineStart = start;
+        lineEnd = end;
+        cursor = start;
+        scanned = 0;
+        csvState = LINE_START;
+        lineNumber += 1 + currentBreaks;
+        currentBreaks = quotedBreaks;
+        quotedBreaks = 0;
+    }
+
+    /*
+     * Aggiorna lo stato della scansione CSV con il byte successivo della
+     * riga. Le virgolette aprono un campo solo al suo inizio, come in
+     * nextField, e nei commenti sono ignorate.
+     */
+    private void scanCsv(byte b) {
+        switch (csvState) {
+        case LINE_START:
+        case FIELD_START:
+            if (b == '#' && csvState == LINE_START) {
+                csvState = COMMENT;
+            } else if (b == '"') {
+                csvState = QUOTED;
+            } else if (b == ',' || isBlank(b)) {
+                csvState = FIELD_START;
+            } else {
+                csvState = UNQUOTED;
+            }
+            break;
+        case UNQUOTED:
+            if (b == ',') {
+                csvState = FIELD_START;
+            }
+            break;
+        case QUOTED:
+            if (b == '"') {
+                csvState = QUOTE_IN_QUOTED;
+            } else if (b == '\n') {
+                quotedBreaks++;
+            }
+            break;
+        case QUOTE_IN_QUOTED:
+            if (b == '"') {
+                csvState = QUOTED;
+            } else {
+                csvState = b == ',' ? FIELD_START : UNQUOTED;
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    /*
+     * Legge il token successivo della riga, delimitato da spazi o
+     * tabulazioni. Restituisce false alla fine della riga.
+     */
+    private boolean nextToken() {
+        while (cursor < lineEnd && isBlank(bytes[cursor])) {
+            cursor++;
+        }
+        if (cursor == lineEnd) {
+            return false;
+        }
+        tokenStart = cursor;
+        while (cursor < lineEnd && !isBlank(bytes[cursor])) {
+            cursor++;
+        }
+        tokenEnd = cursor;
+        return true;
+    }
+
+    /*
+     * Legge il campo CSV successivo della riga, togliendo gli spazi esterni
+     * e le virgolette. Restituisce null se la riga è finita.
+     */
+    private String nextField() throws IOException {
+        if (cursor > lineEnd) {
+            return null;
+        }
+        while (cursor < lineEnd && isBlank(bytes[cursor])) {
+            cursor++;
+        }
+        String field;
+        if (cursor < lineEnd && bytes[cursor] == '"') {
+            ByteBuffer unquoted = ByteBuffer.allocate(lineEnd - cursor);
+            cursor++;
+            while (true) {
+                if (cursor == lineEnd) {
+                    throw malformed("unterminated quoted field");
+                }
+                byte b = bytes[cursor++];
+                if (b == '"') {
+                    if (cursor < lineEnd && bytes[cursor] == '"') {
+                        cursor++;
+                    } else {
+                        break;
+                    }
+                }
+                unquoted.put(b);
+            }
+            field = new String(unquoted.array(), 0, unquoted.position(), StandardCharsets.UTF_8);
+            while (cursor < lineEnd && isBlank(bytes[cursor])) {
+                cursor++;
+            }
+            if (cursor < lineEnd && bytes[cursor] != ',') {
+                throw malformed("unexpected character after quoted field");
+            }
+        } else {
+            int start = cursor;
+            while (cursor < lineEnd && bytes[cursor] != ',') {
+                cursor++;
+            }
+            int end = cursor;
+            while (end > start && isBlank(bytes[end - 1])) {
+                end--;
+            }
+            field = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        }
+        // salta la virgola; oltre la fine della riga non ci sono altri campi
+        cursor++;
+        return field;
+    }
+
+    /*
+     * Restituisce true se la riga corrente è vuota o contiene solo spazi e
+     * tabulazioni
+     */
+    private boolean isBlankLine() {
+        for (int p = lineStart; p < lineEnd; p++) {
+            if (!isBlank(bytes[p])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void expectEndOfLine() throws IOException {
+        if (nextToken()) {
+            throw malformed("unexpected token " + token());
+        }
+    }
+
+    private int nextCount() throws IOException {
+        if (!nextToken()) {
+            throw malformed("missing number");
+        }
+        long value = parseLong();
+        if (value > Integer.MAX_VALUE) {
+            throw malformed("number too large " + token());
+        }
+        return (int) value;
+    }
+
+    /*
+     * Legge il numero di nodi di un'intestazione, che deve lasciare spazio
+     * nell'array degli indici per i nodi numerati da 1 a n
+     */
+    private int nextNodeCount() throws IOException {
+        int n = nextCount();
+        if (n == Integer.MAX_VALUE) {
+            throw malformed("too many nodes " + n);
+        }
+        return n;
+    }
+
+    private int nextNode(int[] index) throws IOException {
+        if (!nextToken()) {
+            throw malformed("missing node");
+        }
+        long node = parseLong();
+        if (node < 1 || node >= index.length) {
+            throw malformed("node " + node + " out of range");
+        }
+        return index[(int) node];
+    }
+
+    private double nextWeight() throws IOException {
+        if (!nextToken()) {
+            throw malformed("missing weight");
+        }
+        return parseWeight();
+    }
+
+    /*
+     * Interpreta il token corrente come intero non negativo senza creare
+     * stringhe
+     */
+    private long parseLong() throws IOException {
+        long value = 0;
+        for (int p = tokenStart; p < tokenEnd; p++) {
+            int digit = bytes[p] - '0';
+            if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+                throw malformed("invalid number " + token());
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /*
+     * Interpreta il token corrente come peso. I pesi interi, i più comuni
+     * nei file DIMACS, sono letti senza creare stringhe.
+     */
+    private double parseWeight() throws IOException {
+        int p = tokenStart;
+        boolean negative = bytes[p] == '-';
+        if (negative) {
+            p++;
+        }
+        if (p < tokenEnd && tokenEnd - p <= 15) {
+            long value = 0;
+            while (p < tokenEnd && bytes[p] >= '0' && bytes[p] <= '9') {
+                value = value * 10 + (bytes[p++] - '0');
+            }
+            if (p == tokenEnd) {
+                return negative ? -value : value;
+            }
+        }
+        return parseWeight(token());
+    }
+
+    private double parseWeight(String weight) throws IOException {
+        try {
+            return Double.parseDouble(weight);
+        } catch (NumberFormatException e) {
+            throw malformed("invalid weight " + weight);
+        }
+    }
+
+    private boolean tokenIs(String expected) {
+        if (tokenEnd - tokenStart != expected.length()) {
+            return false;
+        }
+        for (int k = 0; k < expected.length(); k++) {
+            if (Character.toLowerCase(bytes[tokenStart + k]) != Character.toLowerCase(expected.charAt(k))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String token() {
+        return new String(bytes, tokenStart, tokenEnd - tokenStart, StandardCharsets.UTF_8);
+    }
+
+    private IOException malformed(String message) {
+        return new IOException("Line " + lineNumber + ": " + message);
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+}
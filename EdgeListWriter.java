@@ -0,0 +1,443 @@
+package it.unicam.cs.asdl2324.mp2;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Scrittore in streaming di liste di archi pesati in uno dei formati di
+ * {@link EdgeListFormat}. Gli archi sono identificati dagli indici dei loro
+ * nodi e vengono formattati in un buffer di dimensione fissa, scritto sul
+ * canale ogni volta che si riempie.
+ *
+ * Lo scrittore è un {@code WeightedEdgeSink}, per cui può ricevere
+ * direttamente il risultato di
+ * {@code KruskalMST.computeMSP(Graph, WeightedEdgeSink)} senza che venga
+ * creato l'insieme degli archi dell'albero. Poiché i metodi di un sink non
+ * possono lanciare eccezioni controllate, un errore di scrittura durante
+ * accept viene segnalato con una {@code UncheckedIOException}.
+ *
+ * I formati DIMACS e Matrix Market dichiarano il numero di archi
+ * nell'intestazione. Se non è noto quando lo scrittore viene creato, come per
+ * un albero di copertura di un grafo non connesso, il canale deve essere un
+ * {@code SeekableByteChannel}: l'intestazione riserva spazio per il numero,
+ * che viene scritto da close.
+ */
+public class EdgeListWriter implements WeightedEdgeSink, Closeable {
+
+    /**
+     * Dimensione del buffer di scrittura, in byte.
+     */
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    /*
+     * Spazio massimo occupato da una riga numerica: due indici, un peso e i
+     * separatori, per due righe nel formato DIMACS
+     */
+    private static final int MAX_RECORD_BYTES = 128;
+
+    /*
+     * Larghezza riservata nell'intestazione al numero di archi quando non è
+     * noto in anticipo
+     */
+    private static final int COUNT_WIDTH = 20;
+
+    private final WritableByteChannel channel;
+
+    private final EdgeListFormat format;
+
+    private final int nodeCount;
+
+    /*
+     * Numero di archi dichiarato, -1 se non è noto
+     */
+    private final long edgeCount;
+
+    /*
+     * Se true il formato Matrix Market è scritto con il campo pattern e i
+     * pesi sono omessi
+     */
+    private final boolean pattern;
+
+    /*
+     * Nomi dei nodi nel formato CSV e loro codifica UTF-8, calcolata alla
+     * prima occorrenza di ogni nodo
+     */
+    private final IntFunction<String> names;
+
+    private final byte[][] encodedNames;
+
+    private final ByteBuffer buffer;
+
+    /*
+     * Posizione nel canale dello spazio riservato al numero di archi, -1 se
+     * il numero è già scritto nell'intestazione
+     */
+    private long countPosition;
+
+    private long written;
+
+    private boolean closed;
+
+    /**
+     * Crea uno scrittore e scrive l'intestazione del formato nel buffer. I
+     * nodi sono numerati da 0 a nodeCount - 1; nei formati DIMACS e Matrix
+     * Market sono scritti numerati da 1.
+     *
+     * @param channel
+     *                      il canale su cui scrivere
+     * @param format
+     *                      il formato da scrivere
+     * @param nodeCount
+     *                      il numero di nodi
+     * @param edgeCount
+     *                      il numero di archi che saranno scritti, -1 se non
+     *                      è noto
+     * @param names
+     *                      la funzione che restituisce il nome del nodo di
+     *                      indice dato nel formato CSV; se è null i nodi sono
+     *                      identificati dal loro indice. È ignorata dagli
+     *                      altri formati
+     * @throw NullPointerException se il canale o il formato sono null
+     * @throw IllegalArgumentException se nodeCount è negativo, se edgeCount è
+     *        minore di -1, o se edgeCount è -1, il formato ha
+     *        un'intestazione e il canale non è un SeekableByteChannel
+     * @throw IOException se non è possibile leggere la posizione del canale
+     */
+    public EdgeListWriter(WritableByteChannel channel, EdgeListFormat format, int nodeCount,
+            long edgeCount, IntFunction<String> names) throws IOException {
+        this(channel, format, nodeCount, edgeCount, names, false);
+    }
+
+    private EdgeListWriter(WritableByteChannel channel, EdgeListFormat format, int nodeCount,
+            long edgeCount, IntFunction<String> names, boolean pattern) throws IOException {
+        if (channel == null || format == null) {
+            throw new NullPointerException("Parametri null");
+        }
+        if (nodeCount < 0 || edgeCount < -1) {
+            throw new IllegalArgumentException("Node count or edge count is negative");
+        }
+        if (edgeCount == -1 && format != EdgeListFormat.CSV && !(channel instanceof SeekableByteChannel)) {
+            throw new IllegalArgumentException(
+                    "Il numero di archi deve essere noto se il canale non è posizionabile");
+        }
+        this.channel = channel;
+        this.format = format;
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.pattern = pattern;
+        this.names = names;
+        this.encodedNames = format == EdgeListFormat.CSV ? new byte[nodeCount][] : null;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.countPosition = -1;
+        this.written = 0;
+        this.closed = false;
+        writeHeader();
+    }
+
+    /**
+     * Scrive tutti gli archi di un grafo non orientato sul canale dato. Il
+     * canale non viene chiuso. Nel formato Matrix Market un grafo senza archi
+     * pesati è scritto con il campo pattern. Gli archi sono letti da
+     * getEdges() e scritti man mano, senza copiarli; nei formati DIMACS e
+     * Matrix Market una prima visita controlla i pesi prima di scrivere
+     * l'intestazione.
+     *
+     * @param <L>
+     *                    tipo delle etichette dei nodi del grafo
+     * @param g
+     *                    il grafo da scrivere
+     * @param channel
+     *                    il canale su cui scrivere
+     * @param format
+     *                    il formato da scrivere
+     * @param encoder
+     *                    la funzione che converte un'etichetta nel nome del
+     *                    nodo nel formato CSV; se è null viene usato
+     *                    String.valueOf. È ignorata dagli altri formati
+     * @return il numero di archi scritti
+     * @throw NullPointerException se il grafo, il canale o il formato sono
+     *        null
+     * @throw IllegalArgumentException se il grafo è orientato, o se ha archi
+     *        non pesati e il formato è DIMACS, o archi pesati e non pesati e
+     *        il formato è Matrix Market
+     * @throw IOException se il canale non può essere scritto
+     */
+    public static <L> int write(Graph<L> g, WritableByteChannel channel, EdgeListFormat format,
+            Function<? super L, String> encoder) throws IOException {
+        if (g == null || channel == null || format == null) {
+            throw new NullPointerException("Parametri null");
+        }
+        if (g.isDirected()) {
+            throw new IllegalArgumentException("Il grafo deve essere non orientato");
+        }
+        int m = g.edgeCount();
+        int unweighted = 0;
+        if (format != EdgeListFormat.CSV) {
+            for (GraphEdge<L> edge : g.getEdges()) {
+                if (Double.isNaN(edge.getWeight())) {
+                    unweighted++;
+                }
+            }
+        }
+        if (unweighted > 0 && format == EdgeListFormat.DIMACS) {
+            throw new IllegalArgumentException("DIMACS format requires weighted edges");
+        }
+        if (unweighted > 0 && unweighted < m && format == EdgeListFormat.MATRIX_MARKET) {
+            throw new IllegalArgumentException(
+                    "Matrix Market format requires all edges to be weighted or none");
+        }
+        IntFunction<String> names = i -> {
+            L label = g.getNode(i).getLabel();
+            return encoder == null ? String.valueOf(label) : encoder.apply(label);
+        };
+        EdgeListWriter writer = new EdgeListWriter(channel, format, g.nodeCount(), m, names,
+                m > 0 && unweighted == m);
+        try {
+            for (GraphEdge<L> edge : g.getEdges()) {
+                writer.accept(g.getNodeIndexOf(edge.getNode1()), g.getNodeIndexOf(edge.getNode2()),
+                        edge.getWeight());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.close();
+        return m;
+    }
+
+    /**
+     * Scrive un arco nel buffer, svuotandolo sul canale se è pieno.
+     *
+     * @param source
+     *                   indice del primo estremo dell'arco
+     * @param target
+     *                   indice del secondo estremo dell'arco
+     * @param weight
+     *                   peso dell'arco, NaN se non è pesato
+     * @throw IllegalStateException se lo scrittore è chiuso o se l'arco
+     *        supera il numero di archi dichiarato
+     * @throw IndexOutOfBoundsException se un indice non corrisponde a un nodo
+     * @throw IllegalArgumentException se l'arco non è pesato e il formato
+     *        richiede un peso
+     * @throw UncheckedIOException se il canale non può essere scritto
+     */
+    @Override
+    public void accept(int source, int target, double weight) {
+        if (closed) {
+            throw new IllegalStateException("Writer is closed");
+        }
+        if (source < 0 || source >= nodeCount || target < 0 || target >= nodeCount) {
+            throw new IndexOutOfBoundsException("Index out of bound");
+        }
+        if (Double.isNaN(weight) && format != EdgeListFormat.CSV && !pattern) {
+            throw new IllegalArgumentException("Edge is not weighted");
+        }
+        if (written == edgeCount) {
+            throw new IllegalStateException("More edges than declared");
+        }
+        try {
+            switch (format) {
+            case CSV:
+                putName(source);
+                putName(target);
+                if (!Double.isNaN(weight)) {
+                    putDouble(weight);
+                } else {
+                    buffer.position(buffer.position() - 1);
+                }
+                buffer.put((byte) '\n');
+                break;
+            case DIMACS:
+                ensure(MAX_RECORD_BYTES);
+                putArc(source, target, weight);
+                putArc(target, source, weight);
+                break;
+            default:
+                ensure(MAX_RECORD_BYTES);
+                putLong(Math.max(source, target) + 1L);
+                buffer.put((byte) ' ');
+                putLong(Math.min(source, target) + 1L);
+                if (!pattern) {
+                    buffer.put((byte) ' ');
+                    putDouble(weight);
+                }
+                buffer.put((byte) '\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        written++;
+    }
+
+    /**
+     * Restituisce il numero di archi scritti finora.
+     *
+     * @return il numero di archi scritti
+     */
+    public long getWrittenCount() {
+        return written;
+    }
+
+    /**
+     * Scrive sul canale il contenuto del buffer e, se non era noto, il numero
+     * di archi nell'intestazione. Il canale non viene chiuso. Le chiamate
+     * successive alla prima non hanno effetto.
+     *
+     * @throw IOException se il canale non può essere scritto o se il numero di
+     *        archi scritti è diverso da quello dichiarato
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        flush();
+        if (edgeCount >= 0 && written != edgeCount) {
+            throw new IOException("Declared " + edgeCount + " edges but wrote " + written);
+        }
+        if (countPosition >= 0) {
+            SeekableByteChannel seekable = (SeekableByteChannel) channel;
+            long end = seekable.position();
+            seekable.position(countPosition);
+            putLong(format == EdgeListFormat.DIMACS ? 2 * written : written);
+            flush();
+            seekable.position(end);
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        if (format == EdgeListFormat.CSV) {
+            return;
+        }
+        if (format == EdgeListFormat.DIMACS) {
+            putAscii("p sp ");
+            putLong(nodeCount);
+            buffer.put((byte) ' ');
+        } else {
+            putAscii("%%MatrixMarket matrix coordinate ");
+            putAscii(pattern ? "pattern" : "real");
+            putAscii(" symmetric\n");
+            putLong(nodeCount);
+            buffer.put((byte) ' ');
+            putLong(nodeCount);
+            buffer.put((byte) ' ');
+        }
+        if (edgeCount >= 0) {
+            putLong(format == EdgeListFormat.DIMACS ? 2 * edgeCount : edgeCount);
+        } else {
+            countPosition = ((SeekableByteChannel) channel).position() + buffer.position();
+            for (int k = 0; k < COUNT_WIDTH; k++) {
+                buffer.put((byte) ' ');
+            }
+        }
+        buffer.put((byte) '\n');
+    }
+
+    private void putArc(int source, int target, double weight) {
+        buffer.put((byte) 'a').put((byte) ' ');
+        putLong(source + 1L);
+        buffer.put((byte) ' ');
+        putLong(target + 1L);
+        buffer.put((byte) ' ');
+        putDouble(weight);
+        buffer.put((byte) '\n');
+    }
+
+    /*
+     * Scrive il nome CSV di un nodo seguito da una virgola
+     */
+    private void putName(int i) throws IOException {
+        byte[] name = encodedNames[i];
+        if (name == null) {
+            name = quote(names == null ? Integer.toString(i) : names.apply(i))
+                    .getBytes(StandardCharsets.UTF_8);
+            encodedNames[i] = name;
+        }
+        if (name.length + 1 > buffer.capacity()) {
+            flush();
+            ByteBuffer direct = ByteBuffer.wrap(name);
+            while (direct.hasRemaining()) {
+                channel.write(direct);
+            }
+        } else {
+            ensure(name.length + 1);
+            buffer.put(name);
+        }
+        ensure(MAX_RECORD_BYTES);
+        buffer.put((byte) ',');
+    }
+
+    /*
+     * Racchiude tra virgolette un nome che altrimenti non verrebbe riletto
+     * uguale
+     */
+    private static String quote(String name) {
+        if (name == null) {
+            throw new NullPointerException("Encoded label is null");
+        }
+        boolean quoted = name.startsWith("#") || name.startsWith(" ") || name.startsWith("\t")
+                || name.endsWith(" ") || name.endsWith("\t");
+        for (int k = 0; k < name.length() && !quoted; k++) {
+            char c = name.charAt(k);
+            quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        return quoted ? '"' + name.replace("\"", "\"\"") + '"' : name;
+    }
+
+    /*
+     * Scrive un intero non negativo senza creare stringhe
+     */
+    private void putLong(long value) {
+        int start = buffer.position();
+        do {
+            buffer.put((byte) ('0' + value % 10));
+            value /= 10;
+        } while (value > 0);
+        for (int i = start, j = buffer.position() - 1; i < j; i++, j--) {
+            byte b = buffer.get(i);
+            buffer.put(i, buffer.get(j));
+            buffer.put(j, b);
+        }
+    }
+
+    /*
+     * Scrive un peso; i pesi interi sono scritti senza parte decimale e senza
+     * creare stringhe
+     */
+    private void putDouble(double weight) {
+        if (weight == Math.rint(weight) && Math.abs(weight) < 1e15) {
+            if (weight < 0) {
+                buffer.put((byte) '-');
+            }
+            putLong((long) Math.abs(weight));
+        } else {
+            putAscii(Double.toString(weight));
+        }
+    }
+
+    private void putAscii(String s) {
+        for (int k = 0; k < s.length(); k++) {
+            buffer.put((byte) s.charAt(k));
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
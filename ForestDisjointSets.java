@@ -1,6 +1,7 @@
 package it.unicam.cs.asdl2324.mp2;
 
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Implementazione dell'interfaccia <code>DisjointSets<E></code> tramite una
@@ -20,7 +21,33 @@ public class ForestDisjointSets<E> implements DisjointSets<E> {
      * i test JUnit.
      */
     protected Map<E, Node<E>> currentElements;
-    
+
+    /*
+     * Strategia di compressione del cammino usata dal find-set
+     */
+    private final PathCompression compression;
+
+    /*
+     * Insieme dei rappresentanti correnti, cioè degli elementi che stanno
+     * nelle radici degli alberi. Viene aggiornato da makeSet e union.
+     */
+    protected Set<E> representatives;
+
+    /*
+     * Metriche raccolte, null se la raccolta è disattivata, e contatori già
+     * recuperati: chiamate a findSet e union, passi sui cammini percorsi
+     * prima della compressione e unioni di alberi dello stesso rango
+     */
+    private Metrics metrics;
+
+    private LongAdder findSetCalls;
+
+    private LongAdder findSetSteps;
+
+    private LongAdder unionCalls;
+
+    private LongAdder unionRankTies;
+
     /*
      * Classe interna statica che rappresenta i nodi degli alberi della foresta.
      * Gli specificatori sono tutti protected unicamente per permettere i test
@@ -44,9 +71,15 @@ public class ForestDisjointSets<E> implements DisjointSets<E> {
          */
         protected int rank;
 
+        /*
+         * Il nodo successivo nella lista circolare dei nodi dello stesso
+         * insieme. Per un insieme singoletto punta al nodo stesso.
+         */
+        protected Node<E> next;
+
         /**
-         * Costruisce un nodo radice con parent che punta a se stesso e rango
-         * zero.
+         * Costruisce un nodo radice con parent che punta a se stesso, rango
+         * zero e lista dei nodi dell'insieme contenente solo se stesso.
          * 
          * @param item
          *                 l'elemento conservato in questo nodo
@@ -56,29 +89,78 @@ public class ForestDisjointSets<E> implements DisjointSets<E> {
             this.item = item;
             this.parent = this;
             this.rank = 0;
+            this.next = this;
         }
 
     }
 
     /**
      * Costruisce una foresta vuota di insiemi disgiunti rappresentati da
-     * alberi.
+     * alberi che usa la compressione completa del cammino.
      */
     public ForestDisjointSets() {
-        currentElements = new HashMap<>();
+        this(PathCompression.FULL);
+    }
+
+    /**
+     * Costruisce una foresta vuota di insiemi disgiunti rappresentati da
+     * alberi che usa la strategia di compressione del cammino data.
+     *
+     * @param compression
+     *                        la strategia di compressione del cammino
+     * @throw NullPointerException se la strategia è null
+     */
+    public ForestDisjointSets(PathCompression compression) {
+        if (compression == null) {
+            throw new NullPointerException("Compression strategy is null");
+        }
+        this.currentElements = new HashMap<>();
+        this.representatives = new HashSet<>();
+        this.compression = compression;
+    }
+
+    /**
+     * Attiva o disattiva la raccolta di metriche. I contatori aggiornati sono
+     * "forestDisjointSets.findSet", "forestDisjointSets.findSet.steps",
+     * numero di archi del cammino percorsi prima della compressione,
+     * "forestDisjointSets.union" e "forestDisjointSets.union.rankTies".
+     *
+     * @param metrics
+     *                    le metriche da aggiornare, null per disattivare la
+     *                    raccolta
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+        this.findSetCalls = metrics == null ? null : metrics.counter("forestDisjointSets.findSet");
+        this.findSetSteps = metrics == null ? null
+                : metrics.counter("forestDisjointSets.findSet.steps");
+        this.unionCalls = metrics == null ? null : metrics.counter("forestDisjointSets.union");
+        this.unionRankTies = metrics == null ? null
+                : metrics.counter("forestDisjointSets.union.rankTies");
+    }
+
+    /**
+     * Restituisce le metriche aggiornate da questa foresta.
+     *
+     * @return le metriche, null se la raccolta è disattivata
+     */
+    public Metrics getMetrics() {
+        return metrics;
     }
 
+    /*
+     * Un elemento è presente se è proprio l'oggetto conservato nel nodo
+     * associato, cioè se il confronto per identità ha successo. La chiave
+     * della mappa e l'elemento del nodo sono sempre lo stesso oggetto, per cui
+     * basta una sola ricerca nella mappa.
+     */
     @Override
     public boolean isPresent(E e) {
         if (e == null) {
             throw new NullPointerException("E is null");
         }
-        for (E element : currentElements.keySet()) {
-            if (element == e) {
-                return true;
-            }
-        }
-        return false;
+        Node<E> node = currentElements.get(e);
+        return node != null && node.item == e;
     }
 
     /*
@@ -90,17 +172,22 @@ public class ForestDisjointSets<E> implements DisjointSets<E> {
         if (e == null) {
             throw new NullPointerException("L'elemento è nullo");
         }
-        if (isPresent(e)) {
+        // anche un elemento uguale ma non identico è rifiutato, in modo che la
+        // chiave della mappa resti lo stesso oggetto dell'elemento del nodo
+        if (currentElements.containsKey(e)) {
             throw new IllegalArgumentException("Il nodo con questo elemento è già presente");
         }
         Node<E> node = new Node<>(e);
         currentElements.put(e, node);
+        representatives.add(e);
     }
 
     /*
      * L'implementazione del find-set deve realizzare l'euristica
      * "compressione del cammino". Si vedano le istruzioni o il libro di testo
-     * Cormen et al. (terza edizione) Capitolo 21 Sezione 3.
+     * Cormen et al. (terza edizione) Capitolo 21 Sezione 3. La ricerca è
+     * iterativa, per non esaurire lo stack su cammini lunghi, e comprime il
+     * cammino secondo la strategia scelta alla costruzione.
      */
     @Override
     public E findSet(E e) {
@@ -111,11 +198,59 @@ public class ForestDisjointSets<E> implements DisjointSets<E> {
         if (node == null) {
             return null;
         }
-        if (node.parent == node) {
-            return node.item;
+        if (findSetCalls != null) {
+            findSetCalls.increment();
+        }
+        return findRoot(node).item;
+    }
+
+    /*
+     * Restituisce la radice dell'albero che contiene il nodo dato comprimendo
+     * il cammino secondo la strategia scelta. Lavora sui puntatori parent
+     * senza ricerche nella mappa.
+     */
+    private Node<E> findRoot(Node<E> node) {
+        if (findSetSteps != null) {
+            findSetSteps.add(depth(node));
+        }
+        switch (compression) {
+        case HALVING:
+            while (node.parent != node) {
+                node.parent = node.parent.parent;
+                node = node.parent;
+            }
+            return node;
+        case SPLITTING:
+            while (node.parent != node) {
+                Node<E> next = node.parent;
+                node.parent = next.parent;
+                node = next;
+            }
+            return node;
+        default:
+            Node<E> root = node;
+            while (root.parent != root) {
+                root = root.parent;
+            }
+            while (node.parent != root) {
+                Node<E> next = node.parent;
+                node.parent = root;
+                node = next;
+            }
+            return root;
         }
-        node.parent = currentElements.get(findSet(node.parent.item));
-        return node.parent.item;
+    }
+
+    /*
+     * Numero di archi tra il nodo e la radice del suo albero
+     */
+    private int depth(Node<E> node) {
+        int depth = 0;
+        while (node.parent != node) {
+            node = node.parent;
+            depth++;
+        }
+        return depth;
     }
 
     /*
@@ -133,37 +268,52 @@ public class ForestDisjointSets<E> implements DisjointSets<E> {
         if (e1 == null || e2 == null) {
             throw new NullPointerException("One of the nodes is null");
         }
-        if (!isPresent(e1) || !isPresent(e2)) {
+        Node<E> node1 = currentElements.get(e1);
+        Node<E> node2 = currentElements.get(e2);
+        if (node1 == null || node1.item != e1 || node2 == null || node2.item != e2) {
             throw new IllegalArgumentException("One of the nodes not in map");
         }
-        if (currentElements.get(e1).parent != currentElements.get(e2).parent) {
-            Node<E> root1 = currentElements.get(findSet(e1));
-            Node<E> root2 = currentElements.get(findSet(e2));
+        if (unionCalls != null) {
+            unionCalls.increment();
+        }
+        Node<E> root1 = findRoot(node1);
+        Node<E> root2 = findRoot(node2);
+        if (root1 != root2) {
             if (root1.rank > root2.rank) {
                 root2.parent = root1;
+                representatives.remove(root2.item);
             }
             else {
                 if (root1.rank == root2.rank) {
                     root2.rank++;
+                    if (unionRankTies != null) {
+                        unionRankTies.increment();
+                    }
                 }
                 root1.parent = root2;
+                representatives.remove(root1.item);
             }
+            // scambiando i successori delle due radici le due liste circolari
+            // diventano una sola
+            Node<E> next1 = root1.next;
+            root1.next = root2.next;
+            root2.next = next1;
         }
     }
 
+    /*
+     * I rappresentanti sono mantenuti da makeSet e union, quindi il costo è
+     * proporzionale al numero di insiemi.
+     */
     @Override
     public Set<E> getCurrentRepresentatives() {
-        Set<E> set = new HashSet<E>();
-        Iterator<E> iter = currentElements.keySet().iterator();
-        while (iter.hasNext()) {
-            E element = iter.next();
-            if (findSet(element) == element) {
-                set.add(element);
-            }
-        }
-        return set;
+        return new HashSet<E>(representatives);
     }
 
+    /*
+     * Gli elementi si ottengono percorrendo la lista circolare a partire dal
+     * nodo di e, con costo proporzionale alla dimensione dell'insieme.
+     */
     @Override
     public Set<E> getCurrentElementsOfSetContaining(E e) {
         if (e == null) {
@@ -173,19 +323,18 @@ public class ForestDisjointSets<E> implements DisjointSets<E> {
             throw new IllegalArgumentException("E not in set");
         }
         Set<E> set = new HashSet<E>();
-        Node<E> parent = currentElements.get(e).parent;
-        Iterator<E> iter = currentElements.keySet().iterator();
-        while (iter.hasNext()) {
-            E element = iter.next();
-            if (findSet(element) == parent.item) {
-                set.add(element);
-            }
-        }
+        Node<E> start = currentElements.get(e);
+        Node<E> node = start;
+        do {
+            set.add(node.item);
+            node = node.next;
+        } while (node != start);
         return set;
     }
 
     @Override
     public void clear() {
         currentElements.clear();
+        representatives.clear();
     }
 }
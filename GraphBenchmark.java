@@ -0,0 +1,927 @@
+package it.unicam.cs.asdl2324.mp2;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Programma di misura delle prestazioni delle operazioni principali del
+ * progetto: inserimento di nodi e archi, ricerca di archi e di nodi adiacenti
+ * nelle rappresentazioni {@code AdjacencyMatrixUndirectedGraph},
+ * {@code PackedAdjacencyMatrixUndirectedGraph} e
+ * {@code AdjacencyListUndirectedGraph}, sequenze di makeSet, findSet e union
+ * su una {@code ForestDisjointSets} e sulla sua versione concorrente e
+ * calcolo dell'albero di copertura minimo con {@code KruskalMST} in tutte le
+ * sue modalità, {@code BoruvkaMST} e {@code PrimMST}.
+ *
+ * Le misure sono eseguite su grafi generati con un seme fissato, di quattro
+ * tipi: casuali con quattro archi per nodo, griglie quadrate, grafi completi
+ * e grafi a legge di potenza costruiti per attaccamento preferenziale. Ogni
+ * operazione viene ripetuta per un numero di iterazioni di riscaldamento, i
+ * cui tempi sono scartati, e poi per un numero di iterazioni misurate, di cui
+ * si riportano tempo medio, minimo e massimo. Le operazioni che dipendono
+ * dalla strategia di compressione del cammino o dall'ordine degli archi sono
+ * misurate per ogni combinazione richiesta, così come quelle sul grafo per
+ * ogni rappresentazione richiesta, per esempio
+ * {@code --operations=union_find --compressions=full,halving,splitting
+ * --orders=sorted,skewed} confronta le strategie sulla sequenza di find e
+ * union di Kruskal. I risultati sono scritti in
+ * formato CSV o JSON, in modo da poter confrontare versioni diverse del
+ * codice.
+ *
+ * Il programma usa solo la Java SE e si esegue con
+ *
+ * <pre>
+ * java it.unicam.cs.asdl2324.mp2.GraphBenchmark [opzioni]
+ * </pre>
+ *
+ * con le opzioni, tutte facoltative:
+ * <ul>
+ * <li>{@code --sizes=100,1000} numeri di nodi dei grafi generati;</li>
+ * <li>{@code --topologies=random,grid,complete,power_law} tipi di grafo;</li>
+ * <li>{@code --graphs=matrix,packed,list} rappresentazioni del grafo, tra i
+ * nomi di {@link GraphType} in minuscolo;</li>
+ * <li>{@code --operations=...} operazioni da misurare, tra i nomi di
+ * {@link Operation} in minuscolo;</li>
+ * <li>{@code --compressions=full,halving,splitting} strategie di
+ * compressione del cammino con cui misurare le operazioni sugli insiemi
+ * disgiunti e KruskalMST;</li>
+ * <li>{@code --orders=generated,sorted,skewed} ordini degli archi, tra i nomi
+ * di {@link EdgeOrder} in minuscolo, con cui misurare UNION_FIND;</li>
+ * <li>{@code --threads=1,2,4} numeri di thread con cui misurare
+ * CONCURRENT_UNION_FIND, per difetto le potenze di due fino al numero di
+ * processori e il numero di processori;</li>
+ * <li>{@code --warmup=5} e {@code --iterations=10} numero di iterazioni di
+ * riscaldamento e misurate;</li>
+ * <li>{@code --seed=42} seme dei generatori;</li>
+ * <li>{@code --format=csv} oppure {@code --format=json};</li>
+ * <li>{@code --out=file} file dei risultati, altrimenti lo standard
+ * output.</li>
+ * </ul>
+ */
+public class GraphBenchmark {
+
+    /**
+     * Tipi di grafo generati per le misure.
+     */
+    public enum Topology {
+        /**
+         * Grafo casuale con n nodi e 4n archi, o n(n-1)/2 se sono meno, tra
+         * coppie distinte di nodi distinti scelte a caso.
+         */
+        RANDOM,
+
+        /**
+         * Griglia quadrata con lato la radice di n, ogni nodo collegato ai
+         * vicini a destra e in basso.
+         */
+        GRID,
+
+        /**
+         * Grafo completo con n nodi e n(n-1)/2 archi.
+         */
+        COMPLETE,
+
+        /**
+         * Grafo a legge di potenza: ogni nuovo nodo si collega a tre nodi
+         * esistenti distinti scelti con probabilità proporzionale al loro
+         * grado.
+         */
+        POWER_LAW
+    }
+
+    /**
+     * Rappresentazioni del grafo su cui sono misurate le operazioni che lo
+     * usano.
+     */
+    public enum GraphType {
+        /**
+         * {@code AdjacencyMatrixUndirectedGraph}.
+         */
+        MATRIX,
+
+        /**
+         * {@code PackedAdjacencyMatrixUndirectedGraph}.
+         */
+        PACKED,
+
+        /**
+         * {@code AdjacencyListUndirectedGraph}.
+         */
+        LIST
+    }
+
+    /**
+     * Ordini in cui UNION_FIND esamina gli archi del grafo generato.
+     */
+    public enum EdgeOrder {
+        /**
+         * Ordine in cui gli archi sono stati generati.
+         */
+        GENERATED,
+
+        /**
+         * Ordine di peso crescente, cioè quello in cui li esamina Kruskal.
+         */
+        SORTED,
+
+        /**
+         * Ordine di grado crescente dell'estremo di grado maggiore: prima gli
+         * archi tra nodi periferici, che formano molti alberi piccoli, poi
+         * quelli dei nodi di grado alto, che fondono gli alberi in alberi alti
+         * e sono cercati molte volte. Sui grafi a legge di potenza concentra
+         * le ricerche sui cammini più lunghi.
+         */
+        SKEWED
+    }
+
+    /**
+     * Operazioni misurate.
+     */
+    public enum Operation {
+        /**
+         * Inserimento di tutti i nodi in un grafo vuoto.
+         */
+        ADD_NODE,
+
+        /**
+         * Inserimento di tutti gli archi in un grafo con i soli nodi.
+         */
+        ADD_WEIGHTED_EDGE,
+
+        /**
+         * Ricerca con getEdge(GraphEdge) di n archi, metà presenti e metà
+         * assenti.
+         */
+        GET_EDGE,
+
+        /**
+         * Chiamata di getAdjacentNodesOf su ogni nodo.
+         */
+        GET_ADJACENT_NODES_OF,
+
+        /**
+         * makeSet su ogni nodo e poi, per ogni arco nell'ordine scelto,
+         * findSet dei due estremi e union se sono in insiemi diversi.
+         */
+        UNION_FIND,
+
+        /**
+         * makeSet di n elementi distinti su una ForestDisjointSets vuota,
+         * union di ogni elemento con uno precedente scelto a caso e infine
+         * findSet di ogni elemento. Non usa il grafo generato, per cui può
+         * essere misurata con milioni di elementi, per esempio con
+         * {@code --operations=singletons --sizes=1000,1000000}: poiché ogni
+         * operazione costa tempo costante atteso, il tempo per elemento deve
+         * restare circa costante al crescere di n.
+         */
+        SINGLETONS,
+
+        /**
+         * La sequenza di UNION_FIND, nell'ordine di generazione, su una
+         * {@code ConcurrentIntDisjointSets} condivisa, con gli archi divisi
+         * tra i thread. Misurata per ogni numero di thread richiesto, mostra
+         * come scala l'implementazione lock-free da 1 a N processori.
+         */
+        CONCURRENT_UNION_FIND,
+
+        /**
+         * computeMSP di KruskalMST in modalità CLASSIC.
+         */
+        KRUSKAL_CLASSIC,
+
+        /**
+         * computeMSP di KruskalMST in modalità PRIMITIVE.
+         */
+        KRUSKAL_PRIMITIVE,
+
+        /**
+         * computeMSP di KruskalMST in modalità FILTER.
+         */
+        KRUSKAL_FILTER,
+
+        /**
+         * computeMSP di BoruvkaMST.
+         */
+        BORUVKA,
+
+        /**
+         * computeMSP di PrimMST, che sceglie da sé la variante densa o
+         * sparsa.
+         */
+        PRIM
+    }
+
+    /*
+     * Numero di archi per nodo dei grafi casuali e a legge di potenza
+     */
+    private static final int RANDOM_DEGREE = 4;
+
+    private static final int POWER_LAW_LINKS = 3;
+
+    /*
+     * Peso massimo, escluso, degli archi generati
+     */
+    private static final int MAX_WEIGHT = 1000;
+
+    /*
+     * Accumula i risultati delle operazioni misurate in modo che il
+     * compilatore non possa eliminarle
+     */
+    private static volatile long blackhole;
+
+    /*
+     * Parametri della misura
+     */
+    private final int[] sizes;
+
+    private final List<Topology> topologies;
+
+    private final List<GraphType> graphs;
+
+    private final List<Operation> operations;
+
+    private final List<PathCompression> compressions;
+
+    private final List<EdgeOrder> orders;
+
+    private final List<Integer> threadCounts;
+
+    private final int warmup;
+
+    private final int iterations;
+
+    private final long seed;
+
+    /*
+     * Archi del grafo corrente come indici dei nodi e pesi
+     */
+    private final WeightedEdgeArrays edges;
+
+    /*
+     * Numero di archi del grafo, o della lista di archi, su cui è stata
+     * misurata l'ultima operazione
+     */
+    private int measuredEdges;
+
+    /**
+     * Costruisce un programma di misura con i parametri dati.
+     *
+     * @param sizes
+     *                       numeri di nodi dei grafi generati
+     * @param topologies
+     *                       tipi di grafo da generare
+     * @param operations
+     *                       operazioni da misurare
+     * @param warmup
+     *                       numero di iterazioni di riscaldamento
+     * @param iterations
+     *                       numero di iterazioni misurate
+     * @param seed
+     *                       seme dei generatori
+     * @throw NullPointerException se uno dei parametri è null
+     * @throw IllegalArgumentException se una dimensione non è positiva, se
+     *        warmup è negativo o se iterations non è positivo
+     */
+    public GraphBenchmark(int[] sizes, List<Topology> topologies, List<Operation> operations,
+            int warmup, int iterations, long seed) {
+        this(sizes, topologies, Arrays.asList(GraphType.MATRIX), operations,
+                Arrays.asList(PathCompression.FULL), Arrays.asList(EdgeOrder.GENERATED),
+                Arrays.asList(1), warmup, iterations, seed);
+    }
+
+    /**
+     * Costruisce un programma di misura con i parametri dati, che misura le
+     * operazioni sul grafo con ognuna delle rappresentazioni, le operazioni
+     * sugli insiemi disgiunti e KruskalMST con ognuna delle strategie di
+     * compressione, UNION_FIND con ognuno degli ordini degli archi e
+     * CONCURRENT_UNION_FIND con ognuno dei numeri di thread.
+     *
+     * @param sizes
+     *                         numeri di nodi dei grafi generati
+     * @param topologies
+     *                         tipi di grafo da generare
+     * @param graphs
+     *                         rappresentazioni del grafo
+     * @param operations
+     *                         operazioni da misurare
+     * @param compressions
+     *                         strategie di compressione del cammino
+     * @param orders
+     *                         ordini degli archi
+     * @param threadCounts
+     *                         numeri di thread
+     * @param warmup
+     *                         numero di iterazioni di riscaldamento
+     * @param iterations
+     *                         numero di iterazioni misurate
+     * @param seed
+     *                         seme dei generatori
+     * @throw NullPointerException se uno dei parametri è null
+     * @throw IllegalArgumentException se una dimensione non è positiva, se
+     *        warmup è negativo, se iterations non è positivo, se non è data
+     *        almeno una rappresentazione, una strategia, un ordine e un
+     *        numero di thread o se un numero di thread non è positivo
+     */
+    public GraphBenchmark(int[] sizes, List<Topology> topologies, List<GraphType> graphs,
+            List<Operation> operations, List<PathCompression> compressions,
+            List<EdgeOrder> orders, List<Integer> threadCounts, int warmup, int iterations,
+            long seed) {
+        if (sizes == null || topologies == null || graphs == null || operations == null
+                || compressions == null || orders == null || threadCounts == null) {
+            throw new NullPointerException("Parametri null");
+        }
+        for (int size : sizes) {
+            if (size <= 0) {
+                throw new IllegalArgumentException("Size must be positive");
+            }
+        }
+        if (warmup < 0 || iterations <= 0) {
+            throw new IllegalArgumentException("Numero di iterazioni non valido");
+        }
+        if (graphs.isEmpty() || compressions.isEmpty() || orders.isEmpty()
+                || threadCounts.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "No graph type, compression strategy, edge order or thread count");
+        }
+        for (int threads : threadCounts) {
+            if (threads <= 0) {
+                throw new IllegalArgumentException("Thread count must be positive");
+            }
+        }
+        this.sizes = sizes.clone();
+        this.topologies = new ArrayList<>(topologies);
+        this.graphs = new ArrayList<>(graphs);
+        this.operations = new ArrayList<>(operations);
+        this.compressions = new ArrayList<>(compressions);
+        this.orders = new ArrayList<>(orders);
+        this.threadCounts = new ArrayList<>(threadCounts);
+        this.warmup = warmup;
+        this.iterations = iterations;
+        this.seed = seed;
+        this.edges = new WeightedEdgeArrays();
+    }
+
+    /**
+     * Esegue le misure e le scrive nel formato dato.
+     *
+     * @param out
+     *                   destinazione dei risultati
+     * @param json
+     *                   true per il formato JSON, false per il formato CSV
+     * @throw NullPointerException se out è null
+     */
+    public void run(PrintWriter out, boolean json) {
+        if (out == null) {
+            throw new NullPointerException("Output is null");
+        }
+        if (json) {
+            out.println("[");
+        } else {
+            out.println("topology,size,nodes,edges,graph,operation,compression,order,threads,"
+                    + "iterations,mean_ns,min_ns,max_ns");
+        }
+        boolean withEdges = false;
+        for (Operation operation : operations) {
+            withEdges |= operation != Operation.SINGLETONS;
+        }
+        boolean first = true;
+        for (Topology topology : topologies) {
+            for (int size : sizes) {
+                // le operazioni che non usano il grafo non devono pagare la
+                // generazione degli archi, che per un grafo completo con
+                // milioni di nodi non sarebbe possibile
+                edges.clear();
+                int n = withEdges ? generate(topology, size, new Random(seed)) : size;
+                for (Operation operation : operations) {
+                    List<GraphType> operationGraphs = usesGraph(operation) ? graphs
+                            : Collections.singletonList(null);
+                    List<PathCompression> operationCompressions = usesCompression(operation)
+                            ? compressions
+                            : Collections.singletonList(null);
+                    List<EdgeOrder> operationOrders = operation == Operation.UNION_FIND ? orders
+                            : Collections.singletonList(null);
+                    List<Integer> operationThreads = operation == Operation.CONCURRENT_UNION_FIND
+                            ? threadCounts
+                            : Collections.singletonList(1);
+                    for (GraphType graph : operationGraphs) {
+                        for (PathCompression compression : operationCompressions) {
+                            for (EdgeOrder order : operationOrders) {
+                                for (int threads : operationThreads) {
+                                    long[] times = measure(graph, operation, compression, order,
+                                            threads, n, new Random(seed));
+                                    write(out, json, first, topology, size, n, graph, operation,
+                                            compression, order, threads, times);
+                                    first = false;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        if (json) {
+            out.println(first ? "]" : "\n]");
+        }
+        out.flush();
+    }
+
+    /*
+     * Scrive una riga di risultati con il numero di archi del grafo misurato
+     * e il tempo medio, minimo e massimo delle iterazioni misurate
+     */
+    private void write(PrintWriter out, boolean json, boolean first, Topology topology, int size,
+            int n, GraphType graph, Operation operation, PathCompression compression,
+            EdgeOrder order, int threads, long[] times) {
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        long sum = 0;
+        for (long time : times) {
+            min = Math.min(min, time);
+            max = Math.max(max, time);
+            sum += time;
+        }
+        long mean = sum / times.length;
+        if (json) {
+            out.print(first ? "  " : ",\n  ");
+            out.print("{\"topology\":\"" + name(topology) + "\",\"size\":" + size
+                    + ",\"nodes\":" + n + ",\"edges\":" + measuredEdges + ",\"graph\":\""
+                    + name(graph) + "\",\"operation\":\"" + name(operation)
+                    + "\",\"compression\":\"" + name(compression) + "\",\"order\":\"" + name(order)
+                    + "\",\"threads\":" + threads + ",\"iterations\":" + times.length
+                    + ",\"mean_ns\":" + mean + ",\"min_ns\":" + min + ",\"max_ns\":" + max + "}");
+        } else {
+            out.println(name(topology) + "," + size + "," + n + "," + measuredEdges + ","
+                    + name(graph) + "," + name(operation) + "," + name(compression) + ","
+                    + name(order) + "," + threads + "," + times.length + "," + mean + "," + min
+                    + "," + max);
+        }
+        out.flush();
+    }
+
+    /*
+     * Genera in edges gli archi di un grafo del tipo dato con circa size nodi
+     * e restituisce il numero effettivo di nodi
+     */
+    private int generate(Topology topology, int size, Random random) {
+        edges.clear();
+        switch (topology) {
+        case RANDOM:
+            long target = Math.min((long) RANDOM_DEGREE * size, (long) size * (size - 1) / 2);
+            Set<Long> pairs = new HashSet<>();
+            while (edges.size() < target) {
+                int u = random.nextInt(size);
+                int v = random.nextInt(size);
+                if (u != v && pairs.add((long) Math.min(u, v) * size + Math.max(u, v))) {
+                    edges.add(u, v, random.nextInt(MAX_WEIGHT));
+                }
+            }
+            return size;
+        case GRID:
+            int side = Math.max(1, (int) Math.round(Math.sqrt(size)));
+            for (int r = 0; r < side; r++) {
+                for (int c = 0; c < side; c++) {
+                    int i = r * side + c;
+                    if (c + 1 < side) {
+                        edges.add(i, i + 1, random.nextInt(MAX_WEIGHT));
+                    }
+                    if (r + 1 < side) {
+                        edges.add(i, i + side, random.nextInt(MAX_WEIGHT));
+                    }
+                }
+            }
+            return side * side;
+        case COMPLETE:
+            for (int i = 0; i < size; i++) {
+                for (int j = i + 1; j < size; j++) {
+                    edges.add(i, j, random.nextInt(MAX_WEIGHT));
+                }
+            }
+            return size;
+        default:
+            // Ogni arco contribuisce con entrambi gli estremi, quindi un
+            // estremo scelto a caso tra quelli già inseriti è un nodo scelto
+            // con probabilità proporzionale al suo grado. Gli estremi sono
+            // scelti tra gli archi dei nodi precedenti e quelli già collegati
+            // al nuovo nodo, cioè gli ultimi archi aggiunti, sono scartati
+            for (int i = 1; i < size; i++) {
+                int links = Math.min(i, POWER_LAW_LINKS);
+                int first = edges.size();
+                while (edges.size() - first < links) {
+                    int linked;
+                    if (first == 0) {
+                        linked = 0;
+                    } else {
+                        int e = random.nextInt(first);
+                        linked = random.nextBoolean() ? edges.source(e) : edges.target(e);
+                    }
+                    boolean duplicate = false;
+                    for (int k = first; k < edges.size(); k++) {
+                        duplicate |= edges.target(k) == linked;
+                    }
+                    if (!duplicate) {
+                        edges.add(i, linked, random.nextInt(MAX_WEIGHT));
+                    }
+                }
+            }
+            return size;
+        }
+    }
+
+    private static boolean usesGraph(Operation operation) {
+        return operation != Operation.SINGLETONS && operation != Operation.CONCURRENT_UNION_FIND;
+    }
+
+    private static boolean usesCompression(Operation operation) {
+        switch (operation) {
+        case UNION_FIND:
+        case SINGLETONS:
+        case KRUSKAL_CLASSIC:
+        case KRUSKAL_PRIMITIVE:
+        case KRUSKAL_FILTER:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /*
+     * Restituisce le posizioni degli archi generati nell'ordine dato
+     */
+    private int[] positionsIn(EdgeOrder order, int n) {
+        int m = edges.size();
+        if (order == EdgeOrder.SORTED) {
+            return edges.sortedOrder();
+        }
+        int[] positions = new int[m];
+        if (order == EdgeOrder.GENERATED) {
+            for (int k = 0; k < m; k++) {
+                positions[k] = k;
+            }
+            return positions;
+        }
+        // ordinamento per conteggio sul grado dell'estremo più connesso,
+        // stabile rispetto all'ordine di generazione
+        int[] degree = new int[n];
+        for (int k = 0; k < m; k++) {
+            degree[edges.source(k)]++;
+            degree[edges.target(k)]++;
+        }
+        int[] start = new int[2 * m + 2];
+        for (int k = 0; k < m; k++) {
+            start[Math.max(degree[edges.source(k)], degree[edges.target(k)]) + 1]++;
+        }
+        for (int d = 1; d < start.length; d++) {
+            start[d] += start[d - 1];
+        }
+        for (int k = 0; k < m; k++) {
+            positions[start[Math.max(degree[edges.source(k)], degree[edges.target(k)])]++] = k;
+        }
+        return positions;
+    }
+
+    /*
+     * Misura l'operazione sul grafo generato con n nodi, nella
+     * rappresentazione, con la strategia di compressione e l'ordine degli
+     * archi dati se l'operazione li usa, e restituisce i tempi in nanosecondi
+     * delle iterazioni misurate
+     */
+    private long[] measure(GraphType graph, Operation operation, PathCompression compression,
+            EdgeOrder order, int threads, int n, Random random) {
+        long[] times = new long[iterations];
+        Graph<Integer> g = operation == Operation.ADD_NODE
+                || operation == Operation.ADD_WEIGHTED_EDGE || operation == Operation.SINGLETONS
+                || operation == Operation.CONCURRENT_UNION_FIND ? null : build(graph, n, true);
+        measuredEdges = g == null ? edges.size() : g.edgeCount();
+        Integer[] elements = null;
+        int[] partners = null;
+        if (operation == Operation.SINGLETONS) {
+            elements = new Integer[n];
+            partners = new int[n];
+            for (int k = 0; k < n; k++) {
+                elements[k] = k;
+                partners[k] = k == 0 ? 0 : random.nextInt(k);
+            }
+        }
+        int[] positions = order == null ? null : positionsIn(order, n);
+        ConcurrentIntDisjointSets concurrentSets = null;
+        ExecutorService executor = null;
+        List<Callable<Long>> tasks = new ArrayList<>();
+        if (operation == Operation.CONCURRENT_UNION_FIND) {
+            concurrentSets = new ConcurrentIntDisjointSets(n);
+            executor = Executors.newFixedThreadPool(threads);
+            for (int t = 0; t < threads; t++) {
+                tasks.add(concurrentUnionFind(concurrentSets, t, threads));
+            }
+        }
+        List<GraphEdge<Integer>> probes = new ArrayList<>();
+        if (operation == Operation.GET_EDGE) {
+            for (int k = 0; k < n; k++) {
+                int i;
+                int j;
+                if (k % 2 == 0 && edges.size() > 0) {
+                    int e = random.nextInt(edges.size());
+                    i = edges.source(e);
+                    j = edges.target(e);
+                } else {
+                    i = random.nextInt(n);
+                    j = random.nextInt(n);
+                }
+                probes.add(new GraphEdge<>(g.getNode(i), g.getNode(j), false));
+            }
+        }
+        for (int it = -warmup; it < iterations; it++) {
+            Graph<Integer> target = g;
+            if (operation == Operation.ADD_WEIGHTED_EDGE) {
+                target = build(graph, n, false);
+            }
+            if (concurrentSets != null) {
+                concurrentSets.reset();
+            }
+            long start = System.nanoTime();
+            long result;
+            switch (operation) {
+            case ADD_NODE:
+                result = build(graph, n, false).nodeCount();
+                break;
+            case ADD_WEIGHTED_EDGE:
+                for (int k = 0; k < edges.size(); k++) {
+                    target.addWeightedEdge(edges.source(k), edges.target(k), edges.weight(k));
+                }
+                result = target.edgeCount();
+                measuredEdges = target.edgeCount();
+                break;
+            case GET_EDGE:
+                result = 0;
+                for (GraphEdge<Integer> probe : probes) {
+                    if (target.getEdge(probe) != null) {
+                        result++;
+                    }
+                }
+                break;
+            case GET_ADJACENT_NODES_OF:
+                result = 0;
+                for (int i = 0; i < n; i++) {
+                    result += target.getAdjacentNodesOf(i).size();
+                }
+                break;
+            case UNION_FIND:
+                result = unionFind(target, compression, positions);
+                break;
+            case SINGLETONS:
+                result = singletons(elements, partners, compression);
+                break;
+            case CONCURRENT_UNION_FIND:
+                result = 0;
+                try {
+                    for (Future<Long> unions : executor.invokeAll(tasks)) {
+                        result += unions.get();
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    executor.shutdownNow();
+                    throw new IllegalStateException("Concurrent union-find failed", e);
+                }
+                break;
+            case KRUSKAL_CLASSIC:
+                result = new KruskalMST<Integer>(KruskalMST.Mode.CLASSIC, compression)
+                        .computeMSP(target).size();
+                break;
+            case KRUSKAL_PRIMITIVE:
+                result = new KruskalMST<Integer>(KruskalMST.Mode.PRIMITIVE, compression)
+                        .computeMSP(target).size();
+                break;
+            case KRUSKAL_FILTER:
+                result = new KruskalMST<Integer>(KruskalMST.Mode.FILTER, compression)
+                        .computeMSP(target).size();
+                break;
+            case BORUVKA:
+                result = new BoruvkaMST<Integer>().computeMSP(target).size();
+                break;
+            default:
+                result = new PrimMST<Integer>().computeMSP(target).size();
+                break;
+            }
+            long time = System.nanoTime() - start;
+            blackhole += result;
+            if (it >= 0) {
+                times[it] = time;
+            }
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
+        return times;
+    }
+
+    /*
+     * Crea un grafo della rappresentazione data con n nodi etichettati da 0 a
+     * n - 1 e, se richiesto, con gli archi generati
+     */
+    private Graph<Integer> build(GraphType graph, int n, boolean withEdges) {
+        Graph<Integer> g;
+        switch (graph) {
+        case PACKED:
+            g = new PackedAdjacencyMatrixUndirectedGraph<>();
+            break;
+        case LIST:
+            g = new AdjacencyListUndirectedGraph<>();
+            break;
+        default:
+            g = new AdjacencyMatrixUndirectedGraph<>();
+            break;
+        }
+        for (int i = 0; i < n; i++) {
+            g.addNode(i);
+        }
+        if (withEdges) {
+            for (int k = 0; k < edges.size(); k++) {
+                g.addWeightedEdge(edges.source(k), edges.target(k), edges.weight(k));
+            }
+        }
+        return g;
+    }
+
+    /*
+     * Esegue sui nodi del grafo la sequenza di operazioni di Kruskal sugli
+     * archi nelle posizioni date, senza ordinarli, e restituisce il numero di
+     * union eseguite
+     */
+    private long unionFind(Graph<Integer> g, PathCompression compression, int[] positions) {
+        ForestDisjointSets<GraphNode<Integer>> sets = new ForestDisjointSets<>(compression);
+        for (GraphNode<Integer> node : g.getNodes()) {
+            sets.makeSet(node);
+        }
+        long unions = 0;
+        for (int k : positions) {
+            GraphNode<Integer> u = sets.findSet(g.getNode(edges.source(k)));
+            GraphNode<Integer> v = sets.findSet(g.getNode(edges.target(k)));
+            if (!u.equals(v)) {
+                sets.union(u, v);
+                unions++;
+            }
+        }
+        return unions;
+    }
+
+    /*
+     * Compito del thread t di threads per CONCURRENT_UNION_FIND: esegue la
+     * sequenza di Kruskal sugli archi in posizione t, t + threads, ... e
+     * restituisce il numero di unioni effettive
+     */
+    private Callable<Long> concurrentUnionFind(ConcurrentIntDisjointSets sets, int t, int threads) {
+        return () -> {
+            long unions = 0;
+            for (int k = t; k < edges.size(); k += threads) {
+                int u = sets.findSet(edges.source(k));
+                int v = sets.findSet(edges.target(k));
+                if (u != v && sets.union(u, v)) {
+                    unions++;
+                }
+            }
+            return unions;
+        };
+    }
+
+    /*
+     * Crea un singoletto per ogni elemento, unisce ogni elemento al partner
+     * precedente e cerca l'insieme di ogni elemento, restituendo il numero
+     * di insiemi distinti, cioè di elementi che sono il rappresentante del
+     * proprio insieme
+     */
+    private static long singletons(Integer[] elements, int[] partners,
+            PathCompression compression) {
+        ForestDisjointSets<Integer> sets = new ForestDisjointSets<>(compression);
+        for (Integer element : elements) {
+            sets.makeSet(element);
+        }
+        for (int k = 1; k < elements.length; k++) {
+            sets.union(elements[k], elements[partners[k]]);
+        }
+        long found = 0;
+        for (Integer element : elements) {
+            if (sets.findSet(element).equals(element)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /*
+     * Nome di un valore nei risultati, "-" per un parametro che l'operazione
+     * non usa
+     */
+    private static String name(Enum<?> value) {
+        if (value == null) {
+            return "-";
+        }
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static <E extends Enum<E>> List<E> parseEnums(Class<E> type, String values) {
+        List<E> result = new ArrayList<>();
+        for (String value : values.split(",")) {
+            result.add(Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT)));
+        }
+        return result;
+    }
+
+    /**
+     * Esegue le misure con i parametri letti dalla riga di comando.
+     *
+     * @param args
+     *                 opzioni nella forma --nome=valore
+     * @throw IllegalArgumentException se un'opzione non è riconosciuta o ha
+     *        un valore non valido
+     * @throw IOException se il file dei risultati non può essere scritto
+     */
+    public static void main(String[] args) throws IOException {
+        int[] sizes = { 100, 1000 };
+        List<Topology> topologies = Arrays.asList(Topology.values());
+        List<GraphType> graphs = Arrays.asList(GraphType.values());
+        List<Operation> operations = Arrays.asList(Operation.values());
+        List<PathCompression> compressions = Arrays.asList(PathCompression.FULL);
+        List<EdgeOrder> orders = Arrays.asList(EdgeOrder.GENERATED);
+        List<Integer> threadCounts = new ArrayList<>();
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads < processors; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(processors);
+        int warmup = 5;
+        int iterations = 10;
+        long seed = 42;
+        boolean json = false;
+        String out = null;
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Opzione non valida: " + arg);
+            }
+            String name = arg.substring(2, equals);
+            String value = arg.substring(equals + 1);
+            switch (name) {
+            case "sizes":
+                String[] parts = value.split(",");
+                sizes = new int[parts.length];
+                for (int k = 0; k < parts.length; k++) {
+                    sizes[k] = Integer.parseInt(parts[k].trim());
+                }
+                break;
+            case "topologies":
+                topologies = parseEnums(Topology.class, value);
+                break;
+            case "graphs":
+                graphs = parseEnums(GraphType.class, value);
+                break;
+            case "operations":
+                operations = parseEnums(Operation.class, value);
+                break;
+            case "compressions":
+                compressions = parseEnums(PathCompression.class, value);
+                break;
+            case "orders":
+                orders = parseEnums(EdgeOrder.class, value);
+                break;
+            case "threads":
+                threadCounts = new ArrayList<>();
+                for (String part : value.split(",")) {
+                    threadCounts.add(Integer.parseInt(part.trim()));
+                }
+                break;
+            case "warmup":
+                warmup = Integer.parseInt(value);
+                break;
+            case "iterations":
+                iterations = Integer.parseInt(value);
+                break;
+            case "seed":
+                seed = Long.parseLong(value);
+                break;
+            case "format":
+                if (!value.equals("csv") && !value.equals("json")) {
+                    throw new IllegalArgumentException("Formato non valido: " + value);
+                }
+                json = value.equals("json");
+                break;
+            case "out":
+                out = value;
+                break;
+            default:
+                throw new IllegalArgumentException("Opzione non valida: " + arg);
+            }
+        }
+        GraphBenchmark benchmark = new GraphBenchmark(sizes, topologies, graphs, operations,
+                compressions, orders, threadCounts, warmup, iterations, seed);
+        if (out == null) {
+            PrintWriter writer = new PrintWriter(
+                    new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            benchmark.run(writer, json);
+        } else {
+            try (PrintWriter writer = new PrintWriter(new BufferedWriter(
+                    new OutputStreamWriter(new FileOutputStream(out), StandardCharsets.UTF_8)))) {
+                benchmark.run(writer, json);
+            }
+        }
+    }
+}
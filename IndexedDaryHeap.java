@@ -0,0 +1,242 @@
+package it.unicam.cs.asdl2324.mp2;
+
+import java.util.*;
+
+/**
+ * Min-heap d-ario indicizzato sugli interi da 0 a capacity - 1. Ogni elemento
+ * presente nello heap ha una priorità di tipo double; per ogni elemento è
+ * memorizzata la sua posizione nello heap, per cui è possibile diminuirne la
+ * priorità in tempo O(log_d n) senza cercarlo.
+ *
+ * Rispetto allo heap binario un'arietà d maggiore di 2 rende più bassi gli
+ * alberi e quindi più economica l'operazione di decrease-key, a fronte di una
+ * estrazione del minimo più costosa: è la scelta adatta ad algoritmi come
+ * quello di Prim, che eseguono molti più decrease-key che estrazioni.
+ */
+public class IndexedDaryHeap {
+
+    /*
+     * Arietà dello heap
+     */
+    private final int d;
+
+    /*
+     * Elementi nell'ordine dello heap: heap[0] è l'elemento di priorità
+     * minima e i figli di heap[k] sono heap[d * k + 1], ..., heap[d * k + d].
+     * Le variabili sono protected unicamente per permettere i test JUnit.
+     */
+    protected int[] heap;
+
+    /*
+     * Posizione di ogni elemento in heap, -1 se l'elemento non è presente
+     */
+    protected int[] positions;
+
+    /*
+     * Priorità di ogni elemento presente
+     */
+    protected double[] keys;
+
+    /*
+     * Numero di elementi presenti
+     */
+    protected int size;
+
+    /**
+     * Costruisce uno heap d-ario vuoto che può contenere gli elementi da 0 a
+     * capacity - 1.
+     *
+     * @param d
+     *                     l'arietà dello heap
+     * @param capacity
+     *                     il numero di elementi possibili
+     * @throw IllegalArgumentException se d è minore di 2 o capacity è
+     *        negativo
+     */
+    public IndexedDaryHeap(int d, int capacity) {
+        if (d < 2) {
+            throw new IllegalArgumentException("Arity must be at least 2");
+        }
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity is negative");
+        }
+        this.d = d;
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(this.positions, -1);
+        this.size = 0;
+    }
+
+    /**
+     * Determina se lo heap è vuoto.
+     *
+     * @return true se lo heap non contiene elementi
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Restituisce il numero di elementi presenti.
+     *
+     * @return il numero di elementi presenti
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Determina se un elemento è presente nello heap.
+     *
+     * @param i
+     *              l'elemento
+     * @return true se i è presente
+     * @throw IndexOutOfBoundsException se i non è un elemento possibile
+     */
+    public boolean contains(int i) {
+        checkElement(i);
+        return positions[i] != -1;
+    }
+
+    /**
+     * Restituisce la priorità di un elemento presente.
+     *
+     * @param i
+     *              l'elemento
+     * @return la priorità di i
+     * @throw IndexOutOfBoundsException se i non è un elemento possibile
+     * @throw NoSuchElementException se i non è presente
+     */
+    public double keyOf(int i) {
+        checkPresent(i);
+        return keys[i];
+    }
+
+    /**
+     * Inserisce un elemento con la priorità data.
+     *
+     * @param i
+     *                l'elemento
+     * @param key
+     *                la priorità
+     * @throw IndexOutOfBoundsException se i non è un elemento possibile
+     * @throw IllegalArgumentException se i è già presente
+     */
+    public void insert(int i, double key) {
+        if (contains(i)) {
+            throw new IllegalArgumentException("Element already in heap");
+        }
+        keys[i] = key;
+        heap[size] = i;
+        positions[i] = size;
+        size++;
+        siftUp(size - 1);
+    }
+
+    /**
+     * Diminuisce la priorità di un elemento presente.
+     *
+     * @param i
+     *                l'elemento
+     * @param key
+     *                la nuova priorità
+     * @throw IndexOutOfBoundsException se i non è un elemento possibile
+     * @throw NoSuchElementException se i non è presente
+     * @throw IllegalArgumentException se la nuova priorità è maggiore di
+     *        quella attuale
+     */
+    public void decreaseKey(int i, double key) {
+        checkPresent(i);
+        if (key > keys[i]) {
+            throw new IllegalArgumentException("New key is greater than current key");
+        }
+        keys[i] = key;
+        siftUp(positions[i]);
+    }
+
+    /**
+     * Estrae l'elemento di priorità minima.
+     *
+     * @return l'elemento estratto
+     * @throw NoSuchElementException se lo heap è vuoto
+     */
+    public int extractMin() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        int min = heap[0];
+        size--;
+        positions[min] = -1;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Svuota lo heap.
+     */
+    public void clear() {
+        for (int k = 0; k < size; k++) {
+            positions[heap[k]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int k) {
+        int element = heap[k];
+        double key = keys[element];
+        while (k > 0) {
+            int parent = (k - 1) / d;
+            if (keys[heap[parent]] <= key) {
+                break;
+            }
+            heap[k] = heap[parent];
+            positions[heap[k]] = k;
+            k = parent;
+        }
+        heap[k] = element;
+        positions[element] = k;
+    }
+
+    private void siftDown(int k) {
+        int element = heap[k];
+        double key = keys[element];
+        while (true) {
+            int first = d * k + 1;
+            if (first >= size) {
+                break;
+            }
+            int last = Math.min(first + d, size);
+            int min = first;
+            for (int c = first + 1; c < last; c++) {
+                if (keys[heap[c]] < keys[heap[min]]) {
+                    min = c;
+                }
+            }
+            if (keys[heap[min]] >= key) {
+                break;
+            }
+            heap[k] = heap[min];
+            positions[heap[k]] = k;
+            k = min;
+        }
+        heap[k] = element;
+        positions[element] = k;
+    }
+
+    private void checkElement(int i) {
+        if (i < 0 || i >= positions.length) {
+            throw new IndexOutOfBoundsException("Element out of bound");
+        }
+    }
+
+    private void checkPresent(int i) {
+        if (!contains(i)) {
+            throw new NoSuchElementException("Element not in heap");
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package it.unicam.cs.asdl2324.mp2;
+
+import java.util.*;
+
+/**
+ * Implementazione dell'interfaccia <code>DisjointSets<E></code> che associa ad
+ * ogni elemento, una sola volta al momento del makeSet, un indice intero denso
+ * e delega le operazioni sugli insiemi a una {@code IntForestDisjointSets}.
+ * Dopo la traduzione iniziale dell'elemento nel suo indice findSet e union
+ * lavorano solo su array di int, senza ricerche in mappe lungo il cammino
+ * verso la radice.
+ *
+ * A differenza di {@code ForestDisjointSets<E>} la presenza di un elemento è
+ * determinata secondo equals.
+ *
+ * @param <E>
+ *                il tipo degli elementi degli insiemi disgiunti
+ */
+public class IndexedForestDisjointSets<E> implements DisjointSets<E> {
+
+    /*
+     * Associazione di ogni elemento con il proprio indice. Le variabili sono
+     * protected unicamente per permettere i test JUnit.
+     */
+    protected Map<E, Integer> indices;
+
+    /*
+     * Elementi ordinati per indice: la posizione i contiene l'elemento di
+     * indice i
+     */
+    protected ArrayList<E> elements;
+
+    /*
+     * Foresta degli indici
+     */
+    protected IntForestDisjointSets forest;
+
+    /*
+     * Insieme dei rappresentanti correnti, aggiornato da makeSet e union
+     */
+    protected Set<E> representatives;
+
+    /**
+     * Costruisce una foresta vuota di insiemi disgiunti che usa la
+     * compressione completa del cammino.
+     */
+    public IndexedForestDisjointSets() {
+        this(PathCompression.FULL);
+    }
+
+    /**
+     * Costruisce una foresta vuota di insiemi disgiunti che usa la strategia
+     * di compressione del cammino data.
+     *
+     * @param compression
+     *                        la strategia di compressione del cammino
+     * @throw NullPointerException se la strategia è null
+     */
+    public IndexedForestDisjointSets(PathCompression compression) {
+        this.indices = new HashMap<>();
+        this.elements = new ArrayList<>();
+        this.representatives = new HashSet<>();
+        this.forest = new IntForestDisjointSets(16, compression);
+    }
+
+    @Override
+    public boolean isPresent(E e) {
+        if (e == null) {
+            throw new NullPointerException("E is null");
+        }
+        return indices.containsKey(e);
+    }
+
+    @Override
+    public void makeSet(E e) {
+        if (e == null) {
+            throw new NullPointerException("L'elemento è nullo");
+        }
+        if (indices.containsKey(e)) {
+            throw new IllegalArgumentException("Il nodo con questo elemento è già presente");
+        }
+        indices.put(e, forest.makeSet());
+        elements.add(e);
+        representatives.add(e);
+    }
+
+    @Override
+    public E findSet(E e) {
+        if (e == null) {
+            throw new NullPointerException("L'elemento è null");
+        }
+        Integer i = indices.get(e);
+        if (i == null) {
+            return null;
+        }
+        return elements.get(forest.findSet(i));
+    }
+
+    @Override
+    public void union(E e1, E e2) {
+        if (e1 == null || e2 == null) {
+            throw new NullPointerException("One of the nodes is null");
+        }
+        Integer i = indices.get(e1);
+        Integer j = indices.get(e2);
+        if (i == null || j == null) {
+            throw new IllegalArgumentException("One of the nodes not in map");
+        }
+        int root1 = forest.findSet(i);
+        int root2 = forest.findSet(j);
+        if (forest.union(root1, root2)) {
+            int loser = forest.findSet(root1) == root1 ? root2 : root1;
+            representatives.remove(elements.get(loser));
+        }
+    }
+
+    @Override
+    public Set<E> getCurrentRepresentatives() {
+        return new HashSet<E>(representatives);
+    }
+
+    @Override
+    public Set<E> getCurrentElementsOfSetContaining(E e) {
+        if (e == null) {
+            throw new NullPointerException("E is null");
+        }
+        Integer index = indices.get(e);
+        if (index == null) {
+            throw new IllegalArgumentException("E not in set");
+        }
+        Set<E> set = new HashSet<E>();
+        int i = index;
+        do {
+            set.add(elements.get(i));
+            i = forest.nextInSet(i);
+        } while (i != index);
+        return set;
+    }
+
+    @Override
+    public void clear() {
+        indices.clear();
+        elements.clear();
+        representatives.clear();
+        forest.clear();
+    }
+}
@@ -0,0 +1,21 @@
+package it.unicam.cs.asdl2324.mp2;
+
+/**
+ * Operazione che riceve un valore int e un valore double e non restituisce
+ * risultati. È la variante primitiva di {@code BiConsumer<Integer, Double>},
+ * che non esiste nella Java SE, e permette di visitare gli adiacenti di un
+ * nodo come coppie di indice e peso senza boxing.
+ */
+@FunctionalInterface
+public interface IntDoubleConsumer {
+
+    /**
+     * Esegue l'operazione sui valori dati.
+     *
+     * @param value
+     *                   il valore int
+     * @param weight
+     *                   il valore double
+     */
+    void accept(int value, double weight);
+}
@@ -0,0 +1,235 @@
+package it.unicam.cs.asdl2324.mp2;
+
+import java.util.*;
+
+/**
+ * Foresta di insiemi disgiunti i cui elementi sono gli interi da 0 a size() -
+ * 1. È la stessa struttura di {@code ForestDisjointSets<E>}, con le euristiche
+ * di unione per rango e compressione del cammino, ma il parent e il rango di
+ * ogni elemento sono memorizzati in due array di int indicizzati
+ * dall'elemento stesso: le operazioni non allocano oggetti e non eseguono
+ * ricerche in mappe.
+ *
+ * La struttura è pensata per algoritmi che numerano gli elementi in modo
+ * denso, ad esempio i nodi di un grafo tramite il loro indice. Per usarla con
+ * elementi generici si veda {@code IndexedForestDisjointSets<E>}.
+ */
+public class IntForestDisjointSets {
+
+    /*
+     * Parent di ogni elemento; una radice ha parent uguale a se stessa. Le
+     * variabili sono protected unicamente per permettere i test JUnit.
+     */
+    protected int[] parent;
+
+    /*
+     * Rango di ogni elemento, limite superiore all'altezza del (sotto)albero
+     * di cui l'elemento è radice
+     */
+    protected int[] rank;
+
+    /*
+     * Successore di ogni elemento nella lista circolare degli elementi dello
+     * stesso insieme
+     */
+    protected int[] next;
+
+    /*
+     * Numero di elementi presenti
+     */
+    protected int size;
+
+    /*
+     * Strategia di compressione del cammino usata dal find-set
+     */
+    private final PathCompression compression;
+
+    /**
+     * Costruisce una foresta vuota che usa la compressione completa del
+     * cammino.
+     */
+    public IntForestDisjointSets() {
+        this(16, PathCompression.FULL);
+    }
+
+    /**
+     * Costruisce una foresta vuota con spazio per il numero di elementi dato
+     * prima di dover ingrandire gli array.
+     *
+     * @param initialCapacity
+     *                            numero di elementi previsto
+     * @param compression
+     *                            la strategia di compressione del cammino
+     * @throw IllegalArgumentException se la capacità è negativa
+     * @throw NullPointerException se la strategia è null
+     */
+    public IntForestDisjointSets(int initialCapacity, PathCompression compression) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Capacity is negative");
+        }
+        if (compression == null) {
+            throw new NullPointerException("Compression strategy is null");
+        }
+        this.parent = new int[initialCapacity];
+        this.rank = new int[initialCapacity];
+        this.next = new int[initialCapacity];
+        this.size = 0;
+        this.compression = compression;
+    }
+
+    /**
+     * Restituisce il numero di elementi presenti.
+     *
+     * @return il numero di elementi presenti
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Crea un nuovo insieme contenente solo il prossimo elemento libero.
+     *
+     * @return l'elemento inserito, cioè il valore di size() prima della
+     *         chiamata
+     */
+    public int makeSet() {
+        if (size == parent.length) {
+            int capacity = Math.max(16, 2 * parent.length);
+            parent = Arrays.copyOf(parent, capacity);
+            rank = Arrays.copyOf(rank, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        parent[size] = size;
+        rank[size] = 0;
+        next[size] = size;
+        return size++;
+    }
+
+    /**
+     * Svuota la foresta e crea gli n insiemi singoletto {0}, ..., {n - 1},
+     * riusando gli array se sono abbastanza grandi.
+     *
+     * @param n
+     *              il numero di elementi
+     * @throw IllegalArgumentException se n è negativo
+     */
+    public void reset(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Size is negative");
+        }
+        if (n > parent.length) {
+            parent = new int[n];
+            rank = new int[n];
+            next = new int[n];
+        }
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            rank[i] = 0;
+            next[i] = i;
+        }
+        size = n;
+    }
+
+    /**
+     * Restituisce il rappresentante dell'insieme che contiene l'elemento dato.
+     * La ricerca è iterativa e comprime il cammino secondo la strategia scelta
+     * alla costruzione.
+     *
+     * @param i
+     *              l'elemento
+     * @return il rappresentante dell'insieme che contiene i
+     * @throw IndexOutOfBoundsException se i non è un elemento presente
+     */
+    public int findSet(int i) {
+        checkElement(i);
+        switch (compression) {
+        case HALVING:
+            while (parent[i] != i) {
+                parent[i] = parent[parent[i]];
+                i = parent[i];
+            }
+            return i;
+        case SPLITTING:
+            while (parent[i] != i) {
+                int next = parent[i];
+                parent[i] = parent[next];
+                i = next;
+            }
+            return i;
+        default:
+            int root = i;
+            while (parent[root] != root) {
+                root = parent[root];
+            }
+            while (parent[i] != root) {
+                int next = parent[i];
+                parent[i] = root;
+                i = next;
+            }
+            return root;
+        }
+    }
+
+    /**
+     * Unisce gli insiemi che contengono i due elementi dati con l'euristica
+     * dell'unione per rango. A parità di rango il rappresentante dell'unione è
+     * il rappresentante dell'insieme di j, come in
+     * {@code ForestDisjointSets<E>}.
+     *
+     * @param i
+     *              il primo elemento
+     * @param j
+     *              il secondo elemento
+     * @return true se i due elementi erano in insiemi diversi, false se erano
+     *         già nello stesso insieme
+     * @throw IndexOutOfBoundsException se uno dei due elementi non è presente
+     */
+    public boolean union(int i, int j) {
+        int root1 = findSet(i);
+        int root2 = findSet(j);
+        if (root1 == root2) {
+            return false;
+        }
+        if (rank[root1] > rank[root2]) {
+            parent[root2] = root1;
+        } else {
+            if (rank[root1] == rank[root2]) {
+                rank[root2]++;
+            }
+            parent[root1] = root2;
+        }
+        int next1 = next[root1];
+        next[root1] = next[root2];
+        next[root2] = next1;
+        return true;
+    }
+
+    /**
+     * Restituisce il successore di un elemento nella lista circolare degli
+     * elementi del suo insieme. Partendo da un elemento qualsiasi e seguendo i
+     * successori si visitano tutti e soli gli elementi dell'insieme prima di
+     * tornare all'elemento di partenza.
+     *
+     * @param i
+     *              l'elemento
+     * @return il successore di i nella lista del suo insieme
+     * @throw IndexOutOfBoundsException se i non è un elemento presente
+     */
+    public int nextInSet(int i) {
+        checkElement(i);
+        return next[i];
+    }
+
+    /**
+     * Svuota la foresta mantenendo gli array allocati.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    private void checkElement(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Element not in forest");
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package it.unicam.cs.asdl2324.mp2;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * Programma di verifica dell'assenza di allocazioni di
+ * {@code KruskalMST.computeMSP(Graph, WeightedEdgeSink)}. Per ogni numero di
+ * nodi e ogni modalità PRIMITIVE e FILTER viene costruito un grafo casuale
+ * connesso e, dopo alcune esecuzioni di riscaldamento, si misura con
+ * {@code getThreadAllocatedBytes} la memoria allocata dal thread corrente
+ * durante un certo numero di ulteriori esecuzioni sullo stesso grafo, con un
+ * sink che non alloca. Le dimensioni predefinite producono grafi sia sotto
+ * sia sopra la soglia oltre la quale {@code WeightedEdgeArrays} ordina in
+ * parallelo.
+ *
+ * La misura richiede una JVM il cui {@code ThreadMXBean} implementa
+ * {@code com.sun.management.ThreadMXBean}, come quella di OpenJDK; in caso
+ * contrario il programma lo segnala e termina con codice 2. Si esegue con
+ *
+ * <pre>
+ * java it.unicam.cs.asdl2324.mp2.KruskalAllocationCheck [opzioni]
+ * </pre>
+ *
+ * con le opzioni, tutte facoltative:
+ * <ul>
+ * <li>{@code --sizes=200,2000} numeri di nodi dei grafi;</li>
+ * <li>{@code --degree=16} numero medio di archi casuali per nodo, oltre a
+ * quelli del cammino che rende il grafo connesso;</li>
+ * <li>{@code --warmup=200} esecuzioni di riscaldamento;</li>
+ * <li>{@code --iterations=100} esecuzioni misurate;</li>
+ * <li>{@code --seed=42} seme del generatore.</li>
+ * </ul>
+ * Il programma termina con codice 1 se una delle esecuzioni misurate alloca
+ * memoria.
+ */
+public class KruskalAllocationCheck {
+
+    private final int[] sizes;
+
+    private final int degree;
+
+    private final int warmup;
+
+    private final int iterations;
+
+    private final long seed;
+
+    private final com.sun.management.ThreadMXBean threads;
+
+    /*
+     * Somma dei pesi consegnati al sink, usata perché il lavoro del sink non
+     * possa essere eliminato dal compilatore
+     */
+    private double totalWeight;
+
+    /**
+     * Costruisce un programma di verifica con i parametri dati.
+     *
+     * @param sizes
+     *                       numeri di nodi dei grafi
+     * @param degree
+     *                       numero medio di archi casuali per nodo
+     * @param warmup
+     *                       esecuzioni di riscaldamento
+     * @param iterations
+     *                       esecuzioni misurate
+     * @param seed
+     *                       seme del generatore
+     * @throw NullPointerException se sizes è null
+     * @throw IllegalArgumentException se un numero di nodi, iterations o il
+     *        grado non sono positivi o se warmup è negativo
+     * @throw UnsupportedOperationException se la JVM non misura la memoria
+     *        allocata dai thread
+     */
+    public KruskalAllocationCheck(int[] sizes, int degree, int warmup, int iterations, long seed) {
+        if (sizes == null) {
+            throw new NullPointerException("Sizes is null");
+        }
+        for (int size : sizes) {
+            if (size <= 0) {
+                throw new IllegalArgumentException("Parametri non validi");
+            }
+        }
+        if (degree <= 0 || warmup < 0 || iterations <= 0) {
+            throw new IllegalArgumentException("Parametri non validi");
+        }
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            throw new UnsupportedOperationException("Thread allocation measurement not supported");
+        }
+        this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            throw new UnsupportedOperationException("Thread allocation measurement not supported");
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        this.sizes = sizes.clone();
+        this.degree = degree;
+        this.warmup = warmup;
+        this.iterations = iterations;
+        this.seed = seed;
+    }
+
+    /**
+     * Esegue le misure per tutte le dimensioni e le modalità, scrivendo una
+     * riga per misura sull'output dato.
+     *
+     * @param out
+     *                dove scrivere i risultati
+     * @return true se nessuna esecuzione misurata ha allocato memoria
+     */
+    public boolean run(java.io.PrintStream out) {
+        Random random = new Random(seed);
+        boolean ok = true;
+        for (int n : sizes) {
+            AdjacencyMatrixUndirectedGraph<Integer> g = randomGraph(n, random);
+            for (KruskalMST.Mode mode : new KruskalMST.Mode[] { KruskalMST.Mode.PRIMITIVE,
+                    KruskalMST.Mode.FILTER }) {
+                long allocated = measure(g, new KruskalMST<>(mode));
+                out.println(mode + " nodes=" + n + " edges=" + g.edgeCount() + " allocated="
+                        + allocated + " bytes in " + iterations + " runs");
+                ok &= allocated == 0;
+            }
+        }
+        return ok;
+    }
+
+    /*
+     * Restituisce i byte allocati dal thread corrente nelle esecuzioni
+     * misurate, al netto del costo della misura stessa
+     */
+    private long measure(Graph<Integer> g, KruskalMST<Integer> kruskal) {
+        WeightedEdgeSink sink = (u, v, weight) -> totalWeight += weight;
+        for (int k = 0; k < warmup; k++) {
+            kruskal.computeMSP(g, sink);
+        }
+        long id = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(id);
+        long overhead = threads.getThreadAllocatedBytes(id) - before;
+        before = threads.getThreadAllocatedBytes(id);
+        for (int k = 0; k < iterations; k++) {
+            kruskal.computeMSP(g, sink);
+        }
+        long after = threads.getThreadAllocatedBytes(id);
+        return Math.max(0, after - before - overhead);
+    }
+
+    /*
+     * Grafo con un cammino tra i nodi 0, 1, ..., n - 1 e degree * n archi
+     * casuali in più, senza cappi, tutti con pesi casuali
+     */
+    private AdjacencyMatrixUndirectedGraph<Integer> randomGraph(int n, Random random) {
+        int m = n - 1 + degree * n;
+        int[] sources = new int[m];
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        List<Integer> labels = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            labels.add(i);
+        }
+        for (int k = 0; k < m; k++) {
+            int u = k < n - 1 ? k : random.nextInt(n);
+            int v = k < n - 1 ? k + 1 : random.nextInt(n);
+            if (u == v) {
+                v = (v + 1) % n;
+            }
+            sources[k] = u;
+            targets[k] = v;
+            weights[k] = random.nextDouble();
+        }
+        AdjacencyMatrixUndirectedGraph<Integer> g = new AdjacencyMatrixUndirectedGraph<>();
+        g.addAll(labels, sources, targets, weights);
+        return g;
+    }
+
+    /**
+     * Esegue le misure con i parametri letti dalla riga di comando.
+     *
+     * @param args
+     *                 opzioni nella forma --nome=valore
+     * @throw IllegalArgumentException se un'opzione non è riconosciuta o ha
+     *        un valore non valido
+     */
+    public static void main(String[] args) {
+        int[] sizes = { 200, 2000 };
+        int degree = 16;
+        int warmup = 200;
+        int iterations = 100;
+        long seed = 42;
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Opzione non valida: " + arg);
+            }
+            String name = arg.substring(2, equals);
+            String value = arg.substring(equals + 1);
+            switch (name) {
+            case "sizes":
+                sizes = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+                break;
+            case "degree":
+                degree = Integer.parseInt(value);
+                break;
+            case "warmup":
+                warmup = Integer.parseInt(value);
+                break;
+            case "iterations":
+                iterations = Integer.parseInt(value);
+                break;
+            case "seed":
+                seed = Long.parseLong(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Opzione non valida: " + arg);
+            }
+        }
+        KruskalAllocationCheck check;
+        try {
+            check = new KruskalAllocationCheck(sizes, degree, warmup, iterations, seed);
+        } catch (UnsupportedOperationException e) {
+            System.err.println("SKIPPED: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        if (!check.run(System.out)) {
+            System.err.println("FAILED: computeMSP allocated memory after warmup");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+}
@@ -1,6 +1,8 @@
 package it.unicam.cs.asdl2324.mp2;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
 
 
 /**
@@ -11,6 +13,28 @@ import java.util.*;
  * {@code ForestDisjointSets<GraphNode<L>>} per gestire una collezione di
  * insiemi disgiunti di nodi del grafo.
  * 
+ * In alternativa, scegliendo la modalità {@code Mode.PRIMITIVE} alla
+ * costruzione, gli archi vengono copiati in array paralleli di indici e pesi,
+ * ordinati per peso senza oggetti Comparator e, per grafi grandi, in
+ * parallelo, e gli insiemi disgiunti sono gestiti sugli indici dei nodi con
+ * una {@code IntForestDisjointSets}. Le due modalità restituiscono lo stesso
+ * albero, perché in entrambe gli archi di peso uguale sono considerati
+ * nell'ordine in cui li restituisce getEdges().
+ * 
+ * La modalità {@code Mode.FILTER} realizza la variante Filter-Kruskal: invece
+ * di ordinare tutti gli archi li partiziona ricorsivamente attorno a un
+ * pivot, elabora prima la metà leggera e scarta dalla metà pesante, prima di
+ * ordinarla, gli archi i cui estremi sono già connessi. In tutte le modalità
+ * la scansione si interrompe appena l'albero ha nodeCount() - 1 archi.
+ * 
+ * Un'istanza può essere usata per molti grafi di seguito: gli array degli
+ * archi, delle posizioni e degli insiemi disgiunti vengono riutilizzati e
+ * ingranditi solo quando un grafo è più grande dei precedenti. Il metodo
+ * {@link #computeMSP(Graph, WeightedEdgeSink)} consegna gli archi
+ * dell'albero a un {@code WeightedEdgeSink} invece di raccoglierli in un
+ * insieme e, una volta dimensionati gli array, non alloca memoria. Per
+ * questo motivo un'istanza non va usata da più thread contemporaneamente.
+ * 
  * 
  * @param <L>
  *                tipo delle etichette dei nodi del grafo
@@ -18,18 +42,176 @@ import java.util.*;
  */
 public class KruskalMST<L> {
 
+    /**
+     * Modalità di esecuzione dell'algoritmo.
+     */
+    public enum Mode {
+        /**
+         * Ordina gli oggetti GraphEdge e usa una
+         * {@code ForestDisjointSets<GraphNode<L>>}.
+         */
+        CLASSIC,
+
+        /**
+         * Ordina array primitivi di indici e pesi e usa una
+         * {@code IntForestDisjointSets} sugli indici dei nodi.
+         */
+        PRIMITIVE,
+
+        /**
+         * Come PRIMITIVE, ma con la variante Filter-Kruskal che evita di
+         * ordinare gli archi pesanti che chiuderebbero un ciclo.
+         */
+        FILTER
+    }
+
+    /*
+     * Sotto questo numero di archi Filter-Kruskal ordina direttamente
+     * l'intervallo invece di partizionarlo
+     */
+    private static final int FILTER_THRESHOLD = 1 << 10;
+
     /*
      * Struttura dati per rappresentare gli insiemi disgiunti utilizzata
      * dall'algoritmo di Kruskal.
      */
     private ForestDisjointSets<GraphNode<L>> disjointSets;
 
+    /*
+     * Insiemi disgiunti di indici dei nodi usati dalla modalità PRIMITIVE
+     */
+    private IntForestDisjointSets forest;
+
+    /*
+     * Archi del grafo corrente, posizioni ordinate e spazio di appoggio
+     * dell'ordinamento, riutilizzati tra un'esecuzione e l'altra
+     */
+    private final WeightedEdgeArrays edges;
+
+    private int[] positions;
+
+    private int[] buffer;
+
+    /*
+     * Operazione che copia in edges gli archi di una riga di un
+     * WeightedAdjacency, riutilizzata tra un'esecuzione e l'altra
+     */
+    private final RowCollector rowCollector;
+
+    /*
+     * Archi trovati e archi di un albero completo nell'esecuzione corrente
+     */
+    private int treeSize;
+
+    private int completeSize;
+
+    /*
+     * Lista degli archi e comparatore della modalità CLASSIC, riutilizzati
+     * tra un'esecuzione e l'altra
+     */
+    private final ArrayList<GraphEdge<L>> sortedEdges;
+
+    private final EdgeComparator comparator;
+
+    /*
+     * Metriche raccolte, null se la raccolta è disattivata, e contatori già
+     * recuperati: esecuzioni e tempi delle fasi di validazione, estrazione e
+     * ordinamento degli archi e scansione con gli insiemi disgiunti
+     */
+    private Metrics metrics;
+
+    private LongAdder runs;
+
+    private LongAdder validationNanos;
+
+    private LongAdder sortNanos;
+
+    private LongAdder unionFindNanos;
+
+    /*
+     * Modalità di esecuzione scelta alla costruzione
+     */
+    private final Mode mode;
+
     /**
      * Costruisce un calcolatore di un albero di copertura minimo che usa
      * l'algoritmo di Kruskal su un grafo non orientato e pesato.
      */
     public KruskalMST() {
-        this.disjointSets = new ForestDisjointSets<GraphNode<L>>();
+        this(Mode.CLASSIC);
+    }
+
+    /**
+     * Costruisce un calcolatore di un albero di copertura minimo che usa
+     * l'algoritmo di Kruskal nella modalità data.
+     *
+     * @param mode
+     *                 la modalità di esecuzione
+     * @throw NullPointerException se la modalità è null
+     */
+    public KruskalMST(Mode mode) {
+        this(mode, PathCompression.FULL);
+    }
+
+    /**
+     * Costruisce un calcolatore di un albero di copertura minimo che usa
+     * l'algoritmo di Kruskal nella modalità data e la strategia di
+     * compressione del cammino data per gli insiemi disgiunti.
+     *
+     * @param mode
+     *                        la modalità di esecuzione
+     * @param compression
+     *                        la strategia di compressione del cammino
+     * @throw NullPointerException se la modalità o la strategia sono null
+     */
+    public KruskalMST(Mode mode, PathCompression compression) {
+        if (mode == null) {
+            throw new NullPointerException("Mode is null");
+        }
+        if (compression == null) {
+            throw new NullPointerException("Compression strategy is null");
+        }
+        this.mode = mode;
+        this.disjointSets = new ForestDisjointSets<GraphNode<L>>(compression);
+        this.forest = new IntForestDisjointSets(16, compression);
+        this.edges = new WeightedEdgeArrays();
+        this.rowCollector = new RowCollector(edges);
+        this.positions = new int[0];
+        this.buffer = new int[0];
+        this.sortedEdges = new ArrayList<>();
+        this.comparator = new EdgeComparator();
+    }
+
+    /**
+     * Attiva o disattiva la raccolta di metriche. I contatori aggiornati sono
+     * "kruskal.runs", numero di esecuzioni, e i tempi in nanosecondi delle
+     * fasi di ogni esecuzione: "kruskal.validation.nanos" per i controlli sul
+     * grafo, "kruskal.sort.nanos" per l'estrazione degli archi, con il
+     * controllo dei pesi, e il loro ordinamento o partizionamento, e
+     * "kruskal.unionFind.nanos" per la scansione degli archi con gli insiemi
+     * disgiunti. Le stesse metriche vengono passate alla
+     * {@code ForestDisjointSets} usata nella modalità CLASSIC.
+     *
+     * @param metrics
+     *                    le metriche da aggiornare, null per disattivare la
+     *                    raccolta
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+        this.runs = metrics == null ? null : metrics.counter("kruskal.runs");
+        this.validationNanos = metrics == null ? null : metrics.counter("kruskal.validation.nanos");
+        this.sortNanos = metrics == null ? null : metrics.counter("kruskal.sort.nanos");
+        this.unionFindNanos = metrics == null ? null : metrics.counter("kruskal.unionFind.nanos");
+        disjointSets.setMetrics(metrics);
+    }
+
+    /**
+     * Restituisce le metriche aggiornate da questo calcolatore.
+     *
+     * @return le metriche, null se la raccolta è disattivata
+     */
+    public Metrics getMetrics() {
+        return metrics;
     }
 
     /**
@@ -47,10 +229,140 @@ public class KruskalMST<L> {
      */
     public Set<GraphEdge<L>> computeMSP(Graph<L> g) {
         validateGraph(g);
+        return compute(g);
+    }
+
+    /**
+     * Come {@link #computeMSP(Graph)}, ma consegna gli archi dell'albero al
+     * sink dato, in ordine di peso, come coppie di indici dei nodi nel grafo.
+     * Non vengono creati oggetti GraphEdge né l'insieme del risultato e,
+     * dopo una prima esecuzione su un grafo di dimensioni non inferiori,
+     * l'algoritmo non alloca memoria: per questo gli archi sono ordinati nel
+     * thread chiamante anche quando sono molti e, se il grafo implementa
+     * {@code WeightedAdjacency}, sono letti riga per riga invece che da
+     * getEdges(). Gli archi di peso uguale sono allora considerati in ordine
+     * di indice dei nodi, quindi in presenza di pesi ripetuti l'albero può
+     * essere diverso, ma dello stesso peso, da quello di
+     * {@link #computeMSP(Graph)}. In modalità CLASSIC viene usata la modalità
+     * PRIMITIVE.
+     *
+     * @param g
+     *                 un grafo non orientato, pesato, con pesi non negativi
+     * @param sink
+     *                 la destinazione degli archi dell'albero
+     * @return il numero di archi consegnati al sink
+     * @throw NullPointerException se il grafo g o il sink sono null
+     * @throw IllegalArgumentException se il grafo g è orientato, non pesato o
+     *        con pesi negativi
+     */
+    public int computeMSP(Graph<L> g, WeightedEdgeSink sink) {
+        validateGraph(g);
+        if (sink == null) {
+            throw new NullPointerException("Sink is null");
+        }
+        computeWithArrays(g, sink, true);
+        return treeSize;
+    }
+
+    /**
+     * Come {@link #computeMSP(Graph, WeightedEdgeSink)}, ma legge gli archi
+     * da un {@code WeightedEdgeSource} invece che da un grafo, per esempio da
+     * un {@code MappedGraphFile}. Se la sorgente dichiara gli archi già
+     * ordinati per peso, questi vengono esaminati direttamente nell'ordine in
+     * cui sono, senza copiarli né ordinarli, e solo fino al completamento
+     * dell'albero; altrimenti vengono copiati negli array interni e ordinati
+     * secondo la modalità scelta.
+     *
+     * @param nodeCount
+     *                      il numero di nodi, cioè il limite superiore,
+     *                      escluso, degli indici degli archi
+     * @param source
+     *                      gli archi del grafo
+     * @param sink
+     *                      la destinazione degli archi dell'albero
+     * @return il numero di archi consegnati al sink
+     * @throw NullPointerException se la sorgente o il sink sono null
+     * @throw IllegalArgumentException se il numero di nodi è negativo, se un
+     *        arco esaminato ha un estremo fuori dall'intervallo degli indici,
+     *        non è pesato o ha peso negativo, o se la sorgente dichiara gli
+     *        archi ordinati ma non lo sono
+     */
+    public int computeMSP(int nodeCount, WeightedEdgeSource source, WeightedEdgeSink sink) {
+        long start = Metrics.start(validationNanos);
+        if (source == null || sink == null) {
+            throw new NullPointerException("Parametri null");
+        }
+        if (nodeCount < 0) {
+            throw new IllegalArgumentException("Node count is negative");
+        }
+        Metrics.stop(validationNanos, start);
+        if (runs != null) {
+            runs.increment();
+        }
+        if (source.isSortedByWeight()) {
+            start = Metrics.start(unionFindNanos);
+            scanSorted(nodeCount, source, sink);
+            Metrics.stop(unionFindNanos, start);
+            return treeSize;
+        }
+        start = Metrics.start(sortNanos);
+        edges.clear();
+        edges.ensureCapacity(source.size());
+        for (int k = 0, m = source.size(); k < m; k++) {
+            int u = source.source(k);
+            int v = source.target(k);
+            double weight = source.weight(k);
+            checkEdge(nodeCount, k, u, v, weight);
+            edges.add(u, v, weight);
+        }
+        computeOnEdges(nodeCount, start, sink, false);
+        return treeSize;
+    }
+
+    /**
+     * Come {@link #computeMSP(Graph)}, ma restituisce la foresta di copertura
+     * minima suddivisa per componenti connesse. Le componenti sono ricavate
+     * dallo stato degli insiemi disgiunti al termine della stessa esecuzione
+     * dell'algoritmo, senza una seconda visita del grafo: ogni nodo e ogni
+     * arco dell'albero viene assegnato alla componente del proprio
+     * rappresentante.
+     *
+     * @param g
+     *              un grafo non orientato, pesato, con pesi non negativi
+     * @return la foresta di copertura minima di g con i suoi archi, i suoi
+     *         nodi e il peso totale di ogni componente
+     * @throw NullPointerException se il grafo g è null
+     * @throw IllegalArgumentException se il grafo g è orientato, non pesato o
+     *        con pesi negativi
+     */
+    public MinimumSpanningForest<L> computeMSF(Graph<L> g) {
+        validateGraph(g);
+        Set<GraphEdge<L>> mst = compute(g);
+        MinimumSpanningForest<L> msf = new MinimumSpanningForest<>();
+        for (GraphNode<L> node : g.getNodes()) {
+            msf.addNode(representativeOf(g, node), node);
+        }
+        for (GraphEdge<L> edge : mst) {
+            msf.addEdge(representativeOf(g, edge.getNode1()), edge);
+        }
+        return msf;
+    }
+
+    /*
+     * Esegue l'algoritmo nella modalità scelta su un grafo già validato
+     */
+    private Set<GraphEdge<L>> compute(Graph<L> g) {
+        Set<GraphEdge<L>> mst = new HashSet<>();
+        if (mode != Mode.CLASSIC) {
+            computeWithArrays(g, (u, v, weight) -> mst.add(g.getEdge(u, v)), false);
+            return mst;
+        }
         disjointSets.clear();
-        List<GraphEdge<L>> sortedEdges = getSortedEdges(g);
+        long start = Metrics.start(sortNanos);
+        loadSortedEdges(g);
+        Metrics.stop(sortNanos, start);
+        start = Metrics.start(unionFindNanos);
         initializeDisjointSets(g);
-        Set<GraphEdge<L>> mst = new HashSet<>();
         for (GraphEdge<L> edge : sortedEdges) {
             GraphNode<L> u = edge.getNode1();
             GraphNode<L> v = edge.getNode2();
@@ -59,23 +371,224 @@ public class KruskalMST<L> {
             if (!uSet.equals(vSet)) {
                 mst.add(edge);
                 disjointSets.union(uSet, vSet);
+                if (mst.size() == g.nodeCount() - 1) {
+                    break;
+                }
             }
         }
+        Metrics.stop(unionFindNanos, start);
+        sortedEdges.clear();
         return mst;
     }
 
+    /*
+     * Restituisce il rappresentante dell'insieme che contiene il nodo negli
+     * insiemi disgiunti usati dall'ultima esecuzione
+     */
+    private GraphNode<L> representativeOf(Graph<L> g, GraphNode<L> node) {
+        if (mode == Mode.CLASSIC) {
+            return disjointSets.findSet(node);
+        }
+        return g.getNode(forest.findSet(g.getNodeIndexOf(node)));
+    }
+
+    /*
+     * Variante dell'algoritmo sugli indici dei nodi: l'arco k collega i nodi
+     * di indice edges.source(k) e edges.target(k) e gli archi dell'albero
+     * sono consegnati al sink nell'ordine in cui vengono trovati. Nella
+     * modalità FILTER si usa Filter-Kruskal, altrimenti si ordinano tutti gli
+     * archi. Se allocationFree è true gli archi sono ordinati nel thread
+     * chiamante e, se il grafo implementa WeightedAdjacency, letti riga per
+     * riga; altrimenti sono letti nell'ordine di getEdges() e ordinati in
+     * parallelo.
+     */
+    private void computeWithArrays(Graph<L> g, WeightedEdgeSink sink, boolean allocationFree) {
+        long start = Metrics.start(sortNanos);
+        edges.clear();
+        if (allocationFree && g instanceof WeightedAdjacency) {
+            loadEdgesByRow(g);
+        } else {
+            edges.addNonNegativeEdgesOf(g);
+        }
+        computeOnEdges(g.nodeCount(), start, sink, !allocationFree);
+    }
+
+    /*
+     * Copia in edges gli archi di un grafo che implementa WeightedAdjacency
+     * leggendoli riga per riga, senza iteratori né oggetti GraphEdge: ogni
+     * arco è copiato una sola volta, nella riga del suo estremo di indice
+     * minore, e gli archi risultano in ordine di indice del primo estremo
+     */
+    private void loadEdgesByRow(Graph<L> g) {
+        WeightedAdjacency adjacency = (WeightedAdjacency) g;
+        edges.ensureCapacity(g.edgeCount());
+        for (int i = 0, n = g.nodeCount(); i < n; i++) {
+            rowCollector.row = i;
+            adjacency.forEachNeighbor(i, rowCollector);
+        }
+    }
+
+    /*
+     * Esegue l'algoritmo sugli archi già caricati in edges. Il tempo dal
+     * caricamento, iniziato all'istante start, è contato nella fase di
+     * ordinamento. Se parallel è false l'ordinamento avviene nel thread
+     * chiamante, senza allocare task fork/join.
+     */
+    private void computeOnEdges(int nodeCount, long start, WeightedEdgeSink sink,
+            boolean parallel) {
+        int m = edges.size();
+        if (positions.length < m) {
+            positions = new int[m];
+            buffer = new int[m];
+        }
+        for (int k = 0; k < m; k++) {
+            positions[k] = k;
+        }
+        forest.reset(nodeCount);
+        treeSize = 0;
+        completeSize = nodeCount - 1;
+        if (mode == Mode.FILTER) {
+            Metrics.stop(sortNanos, start);
+            filterKruskal(0, m, sink);
+        } else {
+            if (parallel) {
+                edges.sortByWeight(positions, buffer, 0, m);
+            } else {
+                edges.sortByWeightSequentially(positions, buffer, 0, m);
+            }
+            Metrics.stop(sortNanos, start);
+            start = Metrics.start(unionFindNanos);
+            scan(0, m, sink);
+            Metrics.stop(unionFindNanos, start);
+        }
+    }
+
+    /*
+     * Esamina gli archi di una sorgente già ordinata per peso nell'ordine in
+     * cui sono, controllando solo quelli effettivamente letti
+     */
+    private void scanSorted(int nodeCount, WeightedEdgeSource source, WeightedEdgeSink sink) {
+        forest.reset(nodeCount);
+        treeSize = 0;
+        completeSize = nodeCount - 1;
+        double previous = 0;
+        for (int k = 0, m = source.size(); k < m && treeSize < completeSize; k++) {
+            int u = source.source(k);
+            int v = source.target(k);
+            double weight = source.weight(k);
+            checkEdge(nodeCount, k, u, v, weight);
+            if (weight < previous) {
+                throw new IllegalArgumentException("Edges are not sorted by weight at position " + k);
+            }
+            previous = weight;
+            if (forest.union(u, v)) {
+                treeSize++;
+                sink.accept(u, v, weight);
+            }
+        }
+    }
 
-    private boolean checkWeights(Graph<L> g) {
-        Set<GraphEdge<L>> set = g.getEdges();
-        for (GraphEdge<L> edge : set) {
-            if (!edge.hasWeight()) {
-                return false;
+    /*
+     * Controlla il k-esimo arco di una sorgente: gli estremi devono essere
+     * indici di nodi e il peso non negativo
+     */
+    private static void checkEdge(int nodeCount, int k, int u, int v, double weight) {
+        if (u < 0 || u >= nodeCount || v < 0 || v >= nodeCount) {
+            throw new IllegalArgumentException("Edge " + k + " has an endpoint out of range");
+        }
+        if (!(weight >= 0)) {
+            throw new IllegalArgumentException(
+                    "Graph is not weighted or has negative weights: edge " + k);
+        }
+    }
+
+    /*
+     * Elabora gli archi le cui posizioni sono in positions[from, to) in
+     * ordine di peso. Gli archi più leggeri del pivot sono elaborati per primi;
+     * da quelli più pesanti vengono poi tolti gli archi con estremi già
+     * connessi e solo i rimanenti vengono elaborati ricorsivamente. Restituisce
+     * true se l'albero è completo.
+     */
+    private boolean filterKruskal(int from, int to, WeightedEdgeSink sink) {
+        long start = Metrics.start(sortNanos);
+        if (to - from <= FILTER_THRESHOLD) {
+            edges.sortByWeight(positions, buffer, from, to);
+            Metrics.stop(sortNanos, start);
+            start = Metrics.start(unionFindNanos);
+            boolean complete = scan(from, to, sink);
+            Metrics.stop(unionFindNanos, start);
+            return complete;
+        }
+        int pivot = ThreadLocalRandom.current().nextInt(from, to);
+        pivot = edges.partitionByWeight(positions, from, to, pivot);
+        Metrics.stop(sortNanos, start);
+        if (filterKruskal(from, pivot, sink)) {
+            return true;
+        }
+        start = Metrics.start(unionFindNanos);
+        boolean complete = scan(pivot, pivot + 1, sink);
+        int end = complete ? to : filter(pivot + 1, to);
+        Metrics.stop(unionFindNanos, start);
+        return complete || filterKruskal(pivot + 1, end, sink);
+    }
+
+    /*
+     * Compatta all'inizio di positions[from, to) gli archi i cui estremi
+     * stanno in insiemi diversi e restituisce la fine della parte compattata
+     */
+    private int filter(int from, int to) {
+        int end = from;
+        for (int k = from; k < to; k++) {
+            int e = positions[k];
+            if (forest.findSet(edges.source(e)) != forest.findSet(edges.target(e))) {
+                positions[end++] = e;
             }
-            if (edge.getWeight() < 0) {
-                return false;
+        }
+        return end;
+    }
+
+    /*
+     * Esamina in ordine gli archi le cui posizioni sono in positions[from,
+     * to), già ordinate per peso, consegnando al sink quelli che collegano
+     * insiemi diversi. Restituisce true se l'albero è completo.
+     */
+    private boolean scan(int from, int to, WeightedEdgeSink sink) {
+        for (int k = from; k < to && treeSize < completeSize; k++) {
+            int e = positions[k];
+            int u = edges.source(e);
+            int v = edges.target(e);
+            if (forest.union(u, v)) {
+                treeSize++;
+                sink.accept(u, v, edges.weight(e));
+            }
+        }
+        return treeSize == completeSize;
+    }
+
+    /*
+     * Aggiunge alla lista data gli archi della riga row verso nodi di indice
+     * non inferiore, controllandone il peso
+     */
+    private static class RowCollector implements IntDoubleConsumer {
+        private final WeightedEdgeArrays edges;
+
+        private int row;
+
+        RowCollector(WeightedEdgeArrays edges) {
+            this.edges = edges;
+        }
+
+        @Override
+        public void accept(int j, double weight) {
+            if (j < row) {
+                return;
             }
+            if (!(weight >= 0)) {
+                throw new IllegalArgumentException(
+                        "Graph is not weighted or has negative weights: edge " + row + "-" + j);
+            }
+            edges.add(row, j, weight);
         }
-        return true;
     }
 
     private class EdgeComparator implements Comparator<GraphEdge<L>> {
@@ -86,21 +599,36 @@ public class KruskalMST<L> {
     }
 
     private void validateGraph(Graph<L> g) {
+        long start = Metrics.start(validationNanos);
         if (g == null) {
             throw new NullPointerException("Il grafo non può essere null");
         }
         if (g.isDirected()) {
             throw new IllegalArgumentException("Il grafo deve essere non orientato");
         }
-        if (!checkWeights(g)) {
-            throw new IllegalArgumentException("Graph is not weighted or has negative weights");
+        Metrics.stop(validationNanos, start);
+        if (runs != null) {
+            runs.increment();
         }
     }
 
-    private List<GraphEdge<L>> getSortedEdges(Graph<L> g) {
-        List<GraphEdge<L>> sortedEdges = new ArrayList<>(g.getEdges());
-        sortedEdges.sort(new EdgeComparator());
-        return sortedEdges;
+    /*
+     * Copia in sortedEdges gli archi del grafo controllandone il peso nella
+     * stessa visita di getEdges() e li ordina per peso. I pesi non sono
+     * controllati da validateGraph: il primo arco non valido viene segnalato
+     * qui.
+     */
+    private void loadSortedEdges(Graph<L> g) {
+        sortedEdges.clear();
+        sortedEdges.ensureCapacity(g.edgeCount());
+        for (GraphEdge<L> edge : g.getEdges()) {
+            if (!edge.hasWeight() || edge.getWeight() < 0) {
+                throw new IllegalArgumentException(
+                        "Graph is not weighted or has negative weights: " + edge);
+            }
+            sortedEdges.add(edge);
+        }
+        sortedEdges.sort(comparator);
     }
 
     private void initializeDisjointSets(Graph<L> g) {
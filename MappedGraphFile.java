@@ -0,0 +1,343 @@
+package it.unicam.cs.asdl2324.mp2;
+
+import java.io.IOException;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Grafo non orientato e pesato memorizzato in un file binario e letto
+ * tramite mappatura in memoria con {@code FileChannel.map}. Gli archi non
+ * vengono copiati nello heap: i metodi source, target e weight leggono
+ * direttamente le pagine del file, per cui l'apertura di un file costa
+ * tempo costante indipendentemente dal numero di archi. Un oggetto di questa
+ * classe è un {@code WeightedEdgeSource} e può essere passato a
+ * {@code KruskalMST.computeMSP(int, WeightedEdgeSource, WeightedEdgeSink)}.
+ *
+ * Il file, con tutti i valori in ordine little-endian, contiene:
+ * <ul>
+ * <li>un'intestazione di sei int: il numero magico {@code 0x47445341}, la
+ * versione del formato, i flag, il numero n di nodi, il numero m di archi e
+ * la lunghezza in byte della tabella delle etichette;</li>
+ * <li>n + 1 int con la posizione di inizio dell'etichetta di ogni nodo nella
+ * tabella delle etichette, seguiti dalla posizione di fine dell'ultima;</li>
+ * <li>la tabella delle etichette, codificate come stringhe UTF-8;</li>
+ * <li>dopo un riempimento fino a un multiplo di 8 byte, gli m int dei primi
+ * estremi, gli m int dei secondi estremi e gli m double dei pesi degli
+ * archi, NaN per gli archi non pesati.</li>
+ * </ul>
+ * Se il bit 0 dei flag è a 1 gli archi sono in ordine di peso non
+ * decrescente e, a parità di peso, nell'ordine in cui li restituiva
+ * getEdges() del grafo scritto. Il writer ordina gli archi in questo modo
+ * ogni volta che sono tutti pesati.
+ *
+ * Le etichette sono convertite in stringhe e viceversa da funzioni passate
+ * al writer e al reader.
+ *
+ * @param <L>
+ *                tipo delle etichette dei nodi del grafo
+ */
+public class MappedGraphFile<L> implements WeightedEdgeSource {
+
+    /*
+     * Costanti del formato
+     */
+    private static final int MAGIC = 0x47445341;
+
+    private static final int VERSION = 1;
+
+    private static final int SORTED_BY_WEIGHT = 1;
+
+    private static final int HEADER_BYTES = 24;
+
+    /*
+     * Numero massimo di archi: la sezione dei pesi deve poter essere mappata
+     * con una sola chiamata di map
+     */
+    private static final int MAX_EDGES = Integer.MAX_VALUE / Double.BYTES;
+
+    /*
+     * Numero di nodi e flag letti dall'intestazione
+     */
+    private final int nodeCount;
+
+    private final int flags;
+
+    /*
+     * Posizioni delle etichette seguite dalla tabella delle etichette
+     */
+    private final ByteBuffer labels;
+
+    /*
+     * Viste sulle sezioni mappate degli archi
+     */
+    private final IntBuffer sources;
+
+    private final IntBuffer targets;
+
+    private final DoubleBuffer weights;
+
+    private final Function<String, ? extends L> decoder;
+
+    private MappedGraphFile(int nodeCount, int flags, ByteBuffer labels, IntBuffer sources,
+            IntBuffer targets, DoubleBuffer weights, Function<String, ? extends L> decoder) {
+        this.nodeCount = nodeCount;
+        this.flags = flags;
+        this.labels = labels;
+        this.sources = sources;
+        this.targets = targets;
+        this.weights = weights;
+        this.decoder = decoder;
+    }
+
+    /**
+     * Scrive un grafo non orientato nel file dato, sostituendone il contenuto.
+     * I nodi sono scritti nell'ordine dei loro indici nel grafo.
+     *
+     * @param <L>
+     *                    tipo delle etichette dei nodi del grafo
+     * @param g
+     *                    il grafo da scrivere
+     * @param path
+     *                    il file da scrivere
+     * @param encoder
+     *                    la funzione che converte un'etichetta in stringa
+     * @throw NullPointerException se uno dei parametri è null o se encoder
+     *        restituisce null
+     * @throw IllegalArgumentException se il grafo è orientato o troppo grande
+     *        per il formato
+     * @throw IOException se il file non può essere scritto
+     */
+    public static <L> void write(Graph<L> g, Path path, Function<? super L, String> encoder)
+            throws IOException {
+        if (g == null || path == null || encoder == null) {
+            throw new NullPointerException("Parametri null");
+        }
+        if (g.isDirected()) {
+            throw new IllegalArgumentException("Il grafo deve essere non orientato");
+        }
+        int n = g.nodeCount();
+        byte[][] encoded = new byte[n][];
+        long labelBytes = 0;
+        for (int i = 0; i < n; i++) {
+            String label = encoder.apply(g.getNode(i).getLabel());
+            if (label == null) {
+                throw new NullPointerException("Encoded label is null");
+            }
+            encoded[i] = label.getBytes(StandardCharsets.UTF_8);
+            labelBytes += encoded[i].length;
+        }
+        long labelsSize = (n + 1L) * Integer.BYTES + labelBytes;
+        if (labelsSize + HEADER_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Label table too large");
+        }
+        WeightedEdgeArrays edges = WeightedEdgeArrays.of(g);
+        int m = edges.size();
+        if (m > MAX_EDGES) {
+            throw new IllegalArgumentException("Too many edges");
+        }
+        boolean sorted = true;
+        for (int k = 0; k < m && sorted; k++) {
+            sorted = !Double.isNaN(edges.weight(k));
+        }
+        int[] order;
+        if (sorted) {
+            order = edges.sortedOrder();
+        } else {
+            order = new int[m];
+            for (int k = 0; k < m; k++) {
+                order[k] = k;
+            }
+        }
+        long edgesStart = align(HEADER_BYTES + labelsSize);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer head = channel.map(FileChannel.MapMode.READ_WRITE, 0, edgesStart)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            head.putInt(MAGIC).putInt(VERSION).putInt(sorted ? SORTED_BY_WEIGHT : 0).putInt(n)
+                    .putInt(m).putInt((int) labelBytes);
+            int offset = 0;
+            for (int i = 0; i < n; i++) {
+                head.putInt(offset);
+                offset += encoded[i].length;
+            }
+            head.putInt(offset);
+            for (int i = 0; i < n; i++) {
+                head.put(encoded[i]);
+            }
+            IntBuffer sourceBuffer = map(channel, FileChannel.MapMode.READ_WRITE, edgesStart,
+                    (long) m * Integer.BYTES).asIntBuffer();
+            IntBuffer targetBuffer = map(channel, FileChannel.MapMode.READ_WRITE,
+                    edgesStart + (long) m * Integer.BYTES, (long) m * Integer.BYTES).asIntBuffer();
+            DoubleBuffer weightBuffer = map(channel, FileChannel.MapMode.READ_WRITE,
+                    edgesStart + 2L * m * Integer.BYTES, (long) m * Double.BYTES).asDoubleBuffer();
+            for (int k = 0; k < m; k++) {
+                int e = order[k];
+                sourceBuffer.put(edges.source(e));
+                targetBuffer.put(edges.target(e));
+                weightBuffer.put(edges.weight(e));
+            }
+        }
+    }
+
+    /**
+     * Apre in sola lettura un file scritto con
+     * {@link #write(Graph, Path, Function)} mappandone le sezioni in memoria.
+     * Viene letta solo l'intestazione: etichette e archi sono letti dalle
+     * pagine del file quando servono.
+     *
+     * @param <L>
+     *                    tipo delle etichette dei nodi del grafo
+     * @param path
+     *                    il file da aprire
+     * @param decoder
+     *                    la funzione che converte una stringa in etichetta
+     * @return il grafo mappato
+     * @throw NullPointerException se uno dei parametri è null
+     * @throw IOException se il file non può essere letto o non è nel formato
+     *        atteso
+     */
+    public static <L> MappedGraphFile<L> open(Path path, Function<String, ? extends L> decoder)
+            throws IOException {
+        if (path == null || decoder == null) {
+            throw new NullPointerException("Parametri null");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                throw new IOException("Formato non valido: file troppo corto");
+            }
+            ByteBuffer header = map(channel, FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Formato non valido: numero magico errato");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported format version " + version);
+            }
+            int flags = header.getInt();
+            int n = header.getInt();
+            int m = header.getInt();
+            int labelBytes = header.getInt();
+            if (n < 0 || m < 0 || m > MAX_EDGES || labelBytes < 0) {
+                throw new IOException("Formato non valido: intestazione corrotta");
+            }
+            long labelsSize = (n + 1L) * Integer.BYTES + labelBytes;
+            long edgesStart = align(HEADER_BYTES + labelsSize);
+            if (edgesStart + 2L * m * Integer.BYTES + (long) m * Double.BYTES != fileSize) {
+                throw new IOException("Formato non valido: dimensione del file errata");
+            }
+            ByteBuffer labels = map(channel, FileChannel.MapMode.READ_ONLY, HEADER_BYTES, labelsSize);
+            IntBuffer sources = map(channel, FileChannel.MapMode.READ_ONLY, edgesStart,
+                    (long) m * Integer.BYTES).asIntBuffer();
+            IntBuffer targets = map(channel, FileChannel.MapMode.READ_ONLY,
+                    edgesStart + (long) m * Integer.BYTES, (long) m * Integer.BYTES).asIntBuffer();
+            DoubleBuffer weights = map(channel, FileChannel.MapMode.READ_ONLY,
+                    edgesStart + 2L * m * Integer.BYTES, (long) m * Double.BYTES).asDoubleBuffer();
+            return new MappedGraphFile<>(n, flags, labels, sources, targets, weights, decoder);
+        }
+    }
+
+    /**
+     * Restituisce il numero di nodi del grafo.
+     *
+     * @return il numero di nodi
+     */
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Restituisce l'etichetta del nodo di indice i, decodificandola dalla
+     * tabella delle etichette.
+     *
+     * @param i
+     *              l'indice del nodo
+     * @return l'etichetta del nodo
+     * @throw IndexOutOfBoundsException se l'indice non corrisponde a un nodo
+     */
+    public L label(int i) {
+        if (i < 0 || i >= nodeCount) {
+            throw new IndexOutOfBoundsException("Index out of bound");
+        }
+        int tableStart = (nodeCount + 1) * Integer.BYTES;
+        ByteBuffer bytes = labels.duplicate();
+        bytes.limit(tableStart + labels.getInt((i + 1) * Integer.BYTES));
+        bytes.position(tableStart + labels.getInt(i * Integer.BYTES));
+        return decoder.apply(StandardCharsets.UTF_8.decode(bytes).toString());
+    }
+
+    @Override
+    public int size() {
+        return sources.limit();
+    }
+
+    @Override
+    public int source(int k) {
+        return sources.get(k);
+    }
+
+    @Override
+    public int target(int k) {
+        return targets.get(k);
+    }
+
+    @Override
+    public double weight(int k) {
+        return weights.get(k);
+    }
+
+    /*
+     * Gli archi sono ordinati se il writer ha impostato il flag
+     * corrispondente
+     */
+    @Override
+    public boolean isSortedByWeight() {
+        return (flags & SORTED_BY_WEIGHT) != 0;
+    }
+
+    /**
+     * Copia il grafo mappato in un nuovo grafo con matrice di adiacenza,
+     * caricato in blocco con
+     * {@link AdjacencyMatrixUndirectedGraph#addAll(List, int[], int[], double[])}.
+     * Gli indici dei nodi sono gli stessi del file.
+     *
+     * @return un nuovo grafo con gli stessi nodi e archi
+     */
+    public AdjacencyMatrixUndirectedGraph<L> toGraph() {
+        List<L> labelList = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            labelList.add(label(i));
+        }
+        int m = size();
+        int[] sourceArray = new int[m];
+        int[] targetArray = new int[m];
+        double[] weightArray = new double[m];
+        sources.duplicate().get(sourceArray);
+        targets.duplicate().get(targetArray);
+        weights.duplicate().get(weightArray);
+        AdjacencyMatrixUndirectedGraph<L> g = new AdjacencyMatrixUndirectedGraph<>();
+        g.addAll(labelList, sourceArray, targetArray, weightArray);
+        return g;
+    }
+
+    /*
+     * Mappa una sezione del file con l'ordine dei byte del formato
+     */
+    private static ByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long position,
+            long size) throws IOException {
+        return channel.map(mode, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /*
+     * Arrotonda la posizione al multiplo di 8 successivo, in modo che la
+     * sezione dei pesi sia allineata
+     */
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+}
@@ -0,0 +1,116 @@
+package it.unicam.cs.asdl2324.mp2;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Raccolta di contatori di operazioni identificati da un nome. Ogni
+ * contatore è un {@code LongAdder}, che distribuisce gli incrementi
+ * concorrenti su celle diverse, per cui può essere aggiornato da più thread
+ * con un costo trascurabile. I tempi delle fasi degli algoritmi sono
+ * contatori di nanosecondi, con nomi che terminano per ".nanos".
+ *
+ * Le classi che supportano la raccolta di metriche, come
+ * {@code ForestDisjointSets}, {@code AdjacencyMatrixUndirectedGraph} e
+ * {@code KruskalMST}, ricevono un oggetto di questa classe con il metodo
+ * setMetrics e ne recuperano i contatori una sola volta: finché non ne
+ * ricevono uno il loro unico costo è il controllo che il contatore non sia
+ * null. Lo stesso oggetto può essere condiviso da più istanze, i cui
+ * conteggi vengono sommati.
+ */
+public class Metrics {
+
+    /*
+     * Contatori indicizzati per nome
+     */
+    private final ConcurrentHashMap<String, LongAdder> counters;
+
+    /**
+     * Costruisce una raccolta di metriche vuota.
+     */
+    public Metrics() {
+        this.counters = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Restituisce il contatore con il nome dato, creandolo a zero se non
+     * esiste.
+     *
+     * @param name
+     *                 il nome del contatore
+     * @return il contatore
+     * @throw NullPointerException se il nome è null
+     */
+    public LongAdder counter(String name) {
+        if (name == null) {
+            throw new NullPointerException("Name is null");
+        }
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * Restituisce il valore attuale del contatore con il nome dato.
+     *
+     * @param name
+     *                 il nome del contatore
+     * @return il valore del contatore, 0 se non esiste
+     * @throw NullPointerException se il nome è null
+     */
+    public long get(String name) {
+        if (name == null) {
+            throw new NullPointerException("Name is null");
+        }
+        LongAdder counter = counters.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Restituisce una fotografia dei valori di tutti i contatori. I valori
+     * sono letti uno alla volta, quindi se altri thread aggiornano i
+     * contatori durante la lettura la fotografia non corrisponde
+     * necessariamente a un singolo istante.
+     *
+     * @return una mappa non modificabile dai nomi ai valori dei contatori,
+     *         ordinata per nome
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().sum());
+        }
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * Azzera tutti i contatori. I contatori già recuperati con counter
+     * restano validi.
+     */
+    public void reset() {
+        for (LongAdder counter : counters.values()) {
+            counter.reset();
+        }
+    }
+
+    /*
+     * Restituisce l'istante attuale in nanosecondi se il timer è attivo, 0
+     * altrimenti
+     */
+    static long start(LongAdder timer) {
+        return timer == null ? 0 : System.nanoTime();
+    }
+
+    /*
+     * Aggiunge al timer, se è attivo, il tempo trascorso dall'istante start
+     */
+    static void stop(LongAdder timer, long start) {
+        if (timer != null) {
+            timer.add(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+}
@@ -0,0 +1,183 @@
+package it.unicam.cs.asdl2324.mp2;
+
+import java.util.*;
+
+/**
+ * Foresta di copertura minima di un grafo non orientato e pesato, suddivisa
+ * per componenti connesse. Ogni componente è rappresentata da un
+ * {@link Component} che ne riporta il nodo rappresentante, i nodi, gli archi
+ * dell'albero di copertura minimo e il suo peso totale. Un nodo isolato forma
+ * una componente senza archi e di peso zero.
+ *
+ * Gli oggetti di questa classe sono prodotti da
+ * {@code KruskalMST.computeMSF} e non sono modificabili dall'esterno.
+ *
+ * @param <L>
+ *                tipo delle etichette dei nodi del grafo
+ */
+public class MinimumSpanningForest<L> {
+
+    /**
+     * Componente connessa di una foresta di copertura minima.
+     *
+     * @param <L>
+     *                tipo delle etichette dei nodi del grafo
+     */
+    public static class Component<L> {
+
+        /*
+         * Nodo rappresentante della componente nella struttura di insiemi
+         * disgiunti usata per calcolarla
+         */
+        private final GraphNode<L> representative;
+
+        private final Set<GraphNode<L>> nodes;
+
+        private final Set<GraphEdge<L>> edges;
+
+        private double totalWeight;
+
+        Component(GraphNode<L> representative) {
+            this.representative = representative;
+            this.nodes = new HashSet<>();
+            this.edges = new HashSet<>();
+            this.totalWeight = 0;
+        }
+
+        /**
+         * Restituisce il nodo rappresentante della componente.
+         *
+         * @return il nodo rappresentante
+         */
+        public GraphNode<L> getRepresentative() {
+            return representative;
+        }
+
+        /**
+         * Restituisce i nodi della componente.
+         *
+         * @return un insieme non modificabile dei nodi della componente
+         */
+        public Set<GraphNode<L>> getNodes() {
+            return Collections.unmodifiableSet(nodes);
+        }
+
+        /**
+         * Restituisce gli archi dell'albero di copertura minimo della
+         * componente.
+         *
+         * @return un insieme non modificabile degli archi dell'albero
+         */
+        public Set<GraphEdge<L>> getEdges() {
+            return Collections.unmodifiableSet(edges);
+        }
+
+        /**
+         * Restituisce il peso totale dell'albero di copertura minimo della
+         * componente.
+         *
+         * @return la somma dei pesi degli archi dell'albero
+         */
+        public double getTotalWeight() {
+            return totalWeight;
+        }
+
+        void addNode(GraphNode<L> node) {
+            nodes.add(node);
+        }
+
+        void addEdge(GraphEdge<L> edge) {
+            edges.add(edge);
+            totalWeight += edge.getWeight();
+        }
+    }
+
+    /*
+     * Componenti indicizzate per nodo rappresentante
+     */
+    private final Map<GraphNode<L>, Component<L>> components;
+
+    /*
+     * Unione degli archi di tutte le componenti
+     */
+    private final Set<GraphEdge<L>> edges;
+
+    private double totalWeight;
+
+    MinimumSpanningForest() {
+        this.components = new LinkedHashMap<>();
+        this.edges = new HashSet<>();
+        this.totalWeight = 0;
+    }
+
+    /**
+     * Restituisce le componenti della foresta.
+     *
+     * @return una collezione non modificabile delle componenti
+     */
+    public Collection<Component<L>> getComponents() {
+        return Collections.unmodifiableCollection(components.values());
+    }
+
+    /**
+     * Restituisce il numero di componenti connesse.
+     *
+     * @return il numero di componenti
+     */
+    public int getComponentCount() {
+        return components.size();
+    }
+
+    /**
+     * Restituisce la componente il cui rappresentante è il nodo dato.
+     *
+     * @param representative
+     *                           il nodo rappresentante
+     * @return la componente, null se il nodo non è un rappresentante
+     * @throw NullPointerException se il nodo è null
+     */
+    public Component<L> getComponent(GraphNode<L> representative) {
+        if (representative == null) {
+            throw new NullPointerException("Node is null");
+        }
+        return components.get(representative);
+    }
+
+    /**
+     * Restituisce tutti gli archi della foresta, cioè lo stesso insieme
+     * restituito da {@code KruskalMST.computeMSP}.
+     *
+     * @return un insieme non modificabile degli archi della foresta
+     */
+    public Set<GraphEdge<L>> getEdges() {
+        return Collections.unmodifiableSet(edges);
+    }
+
+    /**
+     * Restituisce il peso totale della foresta.
+     *
+     * @return la somma dei pesi degli archi di tutte le componenti
+     */
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
+    void addNode(GraphNode<L> representative, GraphNode<L> node) {
+        componentOf(representative).addNode(node);
+    }
+
+    void addEdge(GraphNode<L> representative, GraphEdge<L> edge) {
+        componentOf(representative).addEdge(edge);
+        edges.add(edge);
+        totalWeight += edge.getWeight();
+    }
+
+    private Component<L> componentOf(GraphNode<L> representative) {
+        Component<L> component = components.get(representative);
+        if (component == null) {
+            component = new Component<>(representative);
+            components.put(representative, component);
+        }
+        return component;
+    }
+}
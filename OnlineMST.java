@@ -0,0 +1,452 @@
+package it.unicam.cs.asdl2324.mp2;
+
+import java.util.*;
+
+/**
+ * Classe che mantiene una foresta di copertura minima di un grafo non
+ * orientato e pesato i cui archi arrivano uno alla volta, senza che il grafo
+ * debba essere costruito per intero prima del calcolo.
+ *
+ * Quando arriva un arco tra due nodi che stanno in alberi diversi della
+ * foresta, l'arco viene aggiunto e unisce i due alberi. Se invece i due nodi
+ * sono già connessi l'arco chiuderebbe un ciclo: per la proprietà del ciclo
+ * l'arco più pesante del ciclo non fa parte di una foresta minima, quindi se
+ * il nuovo arco è più leggero dell'arco più pesante sul cammino tra i due
+ * nodi quest'ultimo viene tolto e sostituito dal nuovo arco, altrimenti il
+ * nuovo arco viene scartato.
+ *
+ * La foresta è rappresentata con un link-cut tree (Sleator e Tarjan), in cui
+ * anche ogni arco è un nodo dell'albero con il proprio peso: l'arco più
+ * pesante su un cammino, il collegamento e il taglio costano O(log n)
+ * ammortizzato. La foresta corrente e il suo peso totale sono disponibili in
+ * ogni momento senza ricalcoli.
+ *
+ * @param <L>
+ *                tipo delle etichette dei nodi del grafo
+ */
+public class OnlineMST<L> {
+
+    /*
+     * Identificativo nullo dei nodi del link-cut tree; gli identificativi
+     * validi partono da 1
+     */
+    private static final int NIL = 0;
+
+    /*
+     * Associazione di ogni etichetta con l'identificativo del suo nodo
+     */
+    private Map<L, Integer> vertices;
+
+    /*
+     * Nodi del grafo per identificativo; null per gli identificativi usati
+     * dagli archi
+     */
+    private ArrayList<GraphNode<L>> graphNodes;
+
+    /*
+     * Archi della foresta per identificativo; null per gli identificativi
+     * usati dai nodi o liberi
+     */
+    private ArrayList<GraphEdge<L>> graphEdges;
+
+    /*
+     * Estremi degli archi della foresta per identificativo
+     */
+    private int[] edgeSource;
+
+    private int[] edgeTarget;
+
+    /*
+     * Struttura del link-cut tree: figli e parent negli splay tree, flag di
+     * inversione pendente, peso del nodo (meno infinito per i nodi del grafo)
+     * e nodo di peso massimo nel sottoalbero splay
+     */
+    private int[] left;
+
+    private int[] right;
+
+    private int[] parent;
+
+    private boolean[] reversed;
+
+    private double[] value;
+
+    private int[] maxNode;
+
+    /*
+     * Pila di appoggio usata da splay per applicare le inversioni pendenti
+     * dall'alto verso il basso
+     */
+    private int[] splayStack;
+
+    /*
+     * Prossimo identificativo mai usato
+     */
+    private int nextId;
+
+    /*
+     * Identificativi di archi tolti dalla foresta, riutilizzabili
+     */
+    private ArrayDeque<Integer> freeIds;
+
+    /*
+     * Archi della foresta corrente e relativa vista non modificabile
+     */
+    private Set<GraphEdge<L>> forest;
+
+    private Set<GraphEdge<L>> forestView;
+
+    /*
+     * Peso totale della foresta corrente
+     */
+    private double totalWeight;
+
+    /**
+     * Costruisce una foresta vuota.
+     */
+    public OnlineMST() {
+        this.vertices = new HashMap<>();
+        this.graphNodes = new ArrayList<>();
+        this.graphEdges = new ArrayList<>();
+        this.freeIds = new ArrayDeque<>();
+        this.forest = new LinkedHashSet<>();
+        this.forestView = Collections.unmodifiableSet(this.forest);
+        clear();
+    }
+
+    /**
+     * Aggiunge un nodo isolato alla foresta.
+     *
+     * @param label
+     *                  l'etichetta del nodo
+     * @return true se il nodo è stato aggiunto, false se era già presente
+     * @throw NullPointerException se l'etichetta è null
+     */
+    public boolean addNode(L label) {
+        if (label == null) {
+            throw new NullPointerException("Label is null");
+        }
+        if (vertices.containsKey(label)) {
+            return false;
+        }
+        int id = newNode(Double.NEGATIVE_INFINITY);
+        vertices.put(label, id);
+        graphNodes.set(id, new GraphNode<L>(label));
+        return true;
+    }
+
+    /**
+     * Elabora un nuovo arco del flusso aggiornando la foresta di copertura
+     * minima. I nodi non ancora visti vengono aggiunti.
+     *
+     * @param label1
+     *                   l'etichetta del primo nodo
+     * @param label2
+     *                   l'etichetta del secondo nodo
+     * @param weight
+     *                   il peso dell'arco
+     * @return true se l'arco è entrato nella foresta, false se è stato
+     *         scartato
+     * @throw NullPointerException se una delle etichette è null
+     * @throw IllegalArgumentException se il peso è negativo o NaN
+     */
+    public boolean addWeightedEdge(L label1, L label2, double weight) {
+        if (label1 == null || label2 == null) {
+            throw new NullPointerException("One of the labels is null");
+        }
+        if (Double.isNaN(weight) || weight < 0) {
+            throw new IllegalArgumentException("Weight is negative or not a number");
+        }
+        addNode(label1);
+        addNode(label2);
+        int u = vertices.get(label1);
+        int v = vertices.get(label2);
+        if (u == v) {
+            return false;
+        }
+        if (findRoot(u) == findRoot(v)) {
+            makeRoot(u);
+            access(v);
+            int heaviest = maxNode[v];
+            if (value[heaviest] <= weight) {
+                return false;
+            }
+            removeEdge(heaviest);
+        }
+        insertEdge(u, v, weight);
+        return true;
+    }
+
+    /**
+     * Restituisce gli archi della foresta corrente. L'insieme restituito è
+     * una vista non modificabile che riflette gli archi elaborati
+     * successivamente.
+     *
+     * @return l'insieme degli archi della foresta di copertura minima
+     *         corrente
+     */
+    public Set<GraphEdge<L>> getCurrentForest() {
+        return forestView;
+    }
+
+    /**
+     * Restituisce il peso totale della foresta corrente.
+     *
+     * @return la somma dei pesi degli archi della foresta
+     */
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Restituisce il numero di nodi visti finora.
+     *
+     * @return il numero di nodi
+     */
+    public int nodeCount() {
+        return vertices.size();
+    }
+
+    /**
+     * Determina se due nodi sono connessi nella foresta corrente.
+     *
+     * @param label1
+     *                   l'etichetta del primo nodo
+     * @param label2
+     *                   l'etichetta del secondo nodo
+     * @return true se i due nodi sono presenti e connessi
+     * @throw NullPointerException se una delle etichette è null
+     */
+    public boolean connected(L label1, L label2) {
+        if (label1 == null || label2 == null) {
+            throw new NullPointerException("One of the labels is null");
+        }
+        Integer u = vertices.get(label1);
+        Integer v = vertices.get(label2);
+        return u != null && v != null && findRoot(u) == findRoot(v);
+    }
+
+    /**
+     * Svuota la foresta.
+     */
+    public void clear() {
+        vertices.clear();
+        graphNodes.clear();
+        graphEdges.clear();
+        freeIds.clear();
+        forest.clear();
+        totalWeight = 0;
+        int capacity = 16;
+        left = new int[capacity];
+        right = new int[capacity];
+        parent = new int[capacity];
+        reversed = new boolean[capacity];
+        value = new double[capacity];
+        maxNode = new int[capacity];
+        splayStack = new int[capacity];
+        edgeSource = new int[capacity];
+        edgeTarget = new int[capacity];
+        graphNodes.add(null);
+        graphEdges.add(null);
+        nextId = 1;
+    }
+
+    /*
+     * Aggiunge alla foresta l'arco tra i nodi u e v rappresentandolo con un
+     * nuovo nodo collegato a entrambi
+     */
+    private void insertEdge(int u, int v, double weight) {
+        int e = newNode(weight);
+        edgeSource[e] = u;
+        edgeTarget[e] = v;
+        GraphEdge<L> edge = new GraphEdge<L>(graphNodes.get(u), graphNodes.get(v), false, weight);
+        graphEdges.set(e, edge);
+        link(u, e);
+        link(e, v);
+        forest.add(edge);
+        totalWeight += weight;
+    }
+
+    /*
+     * Toglie dalla foresta l'arco rappresentato dal nodo e
+     */
+    private void removeEdge(int e) {
+        cut(edgeSource[e], e);
+        cut(e, edgeTarget[e]);
+        GraphEdge<L> edge = graphEdges.get(e);
+        forest.remove(edge);
+        totalWeight -= edge.getWeight();
+        graphEdges.set(e, null);
+        freeIds.push(e);
+    }
+
+    private int newNode(double weight) {
+        int id;
+        if (!freeIds.isEmpty()) {
+            id = freeIds.pop();
+        } else {
+            id = nextId++;
+            if (id == left.length) {
+                int capacity = 2 * left.length;
+                left = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+                parent = Arrays.copyOf(parent, capacity);
+                reversed = Arrays.copyOf(reversed, capacity);
+                value = Arrays.copyOf(value, capacity);
+                maxNode = Arrays.copyOf(maxNode, capacity);
+                splayStack = new int[capacity];
+                edgeSource = Arrays.copyOf(edgeSource, capacity);
+                edgeTarget = Arrays.copyOf(edgeTarget, capacity);
+            }
+            graphNodes.add(null);
+            graphEdges.add(null);
+        }
+        left[id] = NIL;
+        right[id] = NIL;
+        parent[id] = NIL;
+        reversed[id] = false;
+        value[id] = weight;
+        maxNode[id] = id;
+        return id;
+    }
+
+    /*
+     * Un nodo è radice del proprio splay tree se non è figlio del suo parent,
+     * cioè se il parent è solo un puntatore al cammino successivo
+     */
+    private boolean isSplayRoot(int x) {
+        int p = parent[x];
+        return p == NIL || (left[p] != x && right[p] != x);
+    }
+
+    private void update(int x) {
+        int max = x;
+        if (left[x] != NIL && value[maxNode[left[x]]] > value[max]) {
+            max = maxNode[left[x]];
+        }
+        if (right[x] != NIL && value[maxNode[right[x]]] > value[max]) {
+            max = maxNode[right[x]];
+        }
+        maxNode[x] = max;
+    }
+
+    /*
+     * Applica ai figli l'inversione pendente del nodo x
+     */
+    private void pushDown(int x) {
+        if (reversed[x]) {
+            int tmp = left[x];
+            left[x] = right[x];
+            right[x] = tmp;
+            if (left[x] != NIL) {
+                reversed[left[x]] = !reversed[left[x]];
+            }
+            if (right[x] != NIL) {
+                reversed[right[x]] = !reversed[right[x]];
+            }
+            reversed[x] = false;
+        }
+    }
+
+    private void rotate(int x) {
+        int y = parent[x];
+        int z = parent[y];
+        boolean yWasRoot = isSplayRoot(y);
+        if (left[y] == x) {
+            left[y] = right[x];
+            if (right[x] != NIL) {
+                parent[right[x]] = y;
+            }
+            right[x] = y;
+        } else {
+            right[y] = left[x];
+            if (left[x] != NIL) {
+                parent[left[x]] = y;
+            }
+            left[x] = y;
+        }
+        parent[y] = x;
+        parent[x] = z;
+        if (!yWasRoot) {
+            if (left[z] == y) {
+                left[z] = x;
+            } else {
+                right[z] = x;
+            }
+        }
+        update(y);
+        update(x);
+    }
+
+    private void splay(int x) {
+        int top = 0;
+        int y = x;
+        splayStack[top++] = y;
+        while (!isSplayRoot(y)) {
+            y = parent[y];
+            splayStack[top++] = y;
+        }
+        while (top > 0) {
+            pushDown(splayStack[--top]);
+        }
+        while (!isSplayRoot(x)) {
+            y = parent[x];
+            if (!isSplayRoot(y)) {
+                int z = parent[y];
+                if ((left[z] == y) == (left[y] == x)) {
+                    rotate(y);
+                } else {
+                    rotate(x);
+                }
+            }
+            rotate(x);
+        }
+    }
+
+    /*
+     * Rende il cammino dalla radice dell'albero a x il cammino preferito e
+     * porta x alla radice del suo splay tree
+     */
+    private void access(int x) {
+        int last = NIL;
+        for (int y = x; y != NIL; y = parent[y]) {
+            splay(y);
+            right[y] = last;
+            update(y);
+            last = y;
+        }
+        splay(x);
+    }
+
+    private void makeRoot(int x) {
+        access(x);
+        reversed[x] = !reversed[x];
+    }
+
+    private int findRoot(int x) {
+        access(x);
+        pushDown(x);
+        while (left[x] != NIL) {
+            x = left[x];
+            pushDown(x);
+        }
+        splay(x);
+        return x;
+    }
+
+    private void link(int x, int y) {
+        makeRoot(x);
+        parent[x] = y;
+    }
+
+    /*
+     * Taglia l'arco del link-cut tree tra i nodi adiacenti x e y
+     */
+    private void cut(int x, int y) {
+        makeRoot(x);
+        access(y);
+        left[y] = NIL;
+        parent[x] = NIL;
+        update(y);
+    }
+}
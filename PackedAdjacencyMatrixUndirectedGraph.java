@@ -0,0 +1,769 @@
+package it.unicam.cs.asdl2324.mp2;
+
+import java.util.*;
+
+// ATTENZIONE: è vietato includere import a pacchetti che non siano della Java SE
+
+/**
+ * Classe che implementa un grafo non orientato tramite matrice di adiacenza
+ * memorizzata in forma compatta. Offre la stessa interfaccia e gli stessi
+ * vincoli di {@code AdjacencyMatrixUndirectedGraph<L>}: non sono accettate
+ * etichette dei nodi null né etichette duplicate e i nodi sono indicizzati da
+ * 0 a nodeCount() - 1 seguendo l'ordine del loro inserimento.
+ *
+ * Poiché il grafo è non orientato la matrice è simmetrica e ne viene
+ * memorizzato solo il triangolo superiore, diagonale compresa, linearizzato
+ * per colonne: la cella (i, j) con i <= j si trova in posizione j * (j + 1) / 2
+ * + i. Con questo ordinamento l'inserimento di un nuovo nodo aggiunge le sue
+ * celle in coda senza spostare quelle esistenti.
+ *
+ * Per ogni cella sono mantenuti un bit di presenza dell'arco, in un array di
+ * long usato come bitset, e il peso dell'arco in un array di double (NaN se
+ * l'arco non è pesato). Gli oggetti GraphEdge<L> non sono memorizzati ma sono
+ * creati solo quando un metodo deve restituirli: due chiamate successive
+ * restituiscono quindi oggetti uguali secondo equals ma non identici.
+ *
+ * Questa rappresentazione occupa circa 8 byte e un bit per coppia di nodi,
+ * contro i due riferimenti per coppia e gli oggetti arco della
+ * rappresentazione con ArrayList, ed è adatta a grafi densi con molti nodi.
+ * Se il numero di nodi è noto in anticipo conviene indicarlo al costruttore
+ * o a ensureNodeCapacity, così gli array sono allocati una volta sola della
+ * dimensione esatta.
+ *
+ * @param <L>
+ *                tipo delle etichette dei nodi del grafo
+ */
+public class PackedAdjacencyMatrixUndirectedGraph<L> extends Graph<L> implements WeightedAdjacency {
+
+    /*
+     * Numero massimo di celle del triangolo superiore rappresentabili in un
+     * array Java
+     */
+    private static final long MAX_CELLS = Integer.MAX_VALUE - 8;
+
+    /*
+     * Insieme dei nodi e associazione di ogni nodo con il proprio indice
+     */
+    protected Map<GraphNode<L>, Integer> nodesIndex;
+
+    /*
+     * Associazione di ogni etichetta con il nodo corrispondente
+     */
+    protected Map<L, GraphNode<L>> labelsIndex;
+
+    /*
+     * Nodi ordinati per indice: la posizione i contiene il nodo di indice i
+     */
+    protected ArrayList<GraphNode<L>> nodesList;
+
+    /*
+     * Bitset di presenza degli archi, un bit per cella del triangolo superiore
+     */
+    protected long[] presence;
+
+    /*
+     * Pesi degli archi, una posizione per cella del triangolo superiore. Il
+     * valore è significativo solo se il bit di presenza corrispondente è 1.
+     */
+    protected double[] weights;
+
+    /*
+     * Numero di archi presenti
+     */
+    private int edgeCounter;
+
+    /**
+     * Crea un grafo vuoto.
+     */
+    public PackedAdjacencyMatrixUndirectedGraph() {
+        this.nodesIndex = new HashMap<GraphNode<L>, Integer>();
+        this.labelsIndex = new HashMap<L, GraphNode<L>>();
+        this.nodesList = new ArrayList<GraphNode<L>>();
+        this.presence = new long[0];
+        this.weights = new double[0];
+        this.edgeCounter = 0;
+    }
+
+    /**
+     * Crea un grafo vuoto con spazio per il numero di nodi dato. Se il numero
+     * finale di nodi è noto in anticipo, gli array della matrice vengono
+     * allocati una sola volta e della dimensione esatta, senza copie durante
+     * gli inserimenti.
+     *
+     * @param nodeCapacity
+     *                         il numero di nodi per cui riservare spazio
+     * @throw IllegalArgumentException se nodeCapacity è negativo o troppo
+     *        grande per la rappresentazione compatta
+     */
+    public PackedAdjacencyMatrixUndirectedGraph(int nodeCapacity) {
+        this();
+        ensureNodeCapacity(nodeCapacity);
+    }
+
+    /**
+     * Assicura che gli array della matrice abbiano spazio per almeno il
+     * numero di nodi dato, riallocandoli alla dimensione esatta se serve.
+     * Durante la copia restano in memoria sia i vecchi array sia i nuovi.
+     *
+     * @param nodeCapacity
+     *                         il numero di nodi per cui riservare spazio
+     * @throw IllegalArgumentException se nodeCapacity è negativo o troppo
+     *        grande per la rappresentazione compatta
+     */
+    public void ensureNodeCapacity(int nodeCapacity) {
+        if (nodeCapacity < 0) {
+            throw new IllegalArgumentException("Node capacity is negative");
+        }
+        long needed = cellsFor(nodeCapacity);
+        if (needed > MAX_CELLS) {
+            throw new IllegalArgumentException("Too many nodes for packed matrix");
+        }
+        if (needed > weights.length) {
+            resize((int) needed);
+        }
+    }
+
+    @Override
+    public int nodeCount() {
+        return nodesList.size();
+    }
+
+    @Override
+    public int edgeCount() {
+        return edgeCounter;
+    }
+
+    @Override
+    public void clear() {
+        nodesIndex.clear();
+        labelsIndex.clear();
+        nodesList.clear();
+        presence = new long[0];
+        weights = new double[0];
+        edgeCounter = 0;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return false;
+    }
+
+    /*
+     * Gli indici dei nodi vanno assegnati nell'ordine di inserimento a partire
+     * da zero
+     */
+    @Override
+    public boolean addNode(GraphNode<L> node) {
+        if (node == null) {
+            throw new NullPointerException("Node is null");
+        }
+        if (nodesIndex.containsKey(node)) {
+            return false;
+        }
+        insertNode(node);
+        return true;
+    }
+
+    /*
+     * Gli indici dei nodi vanno assegnati nell'ordine di inserimento a partire
+     * da zero
+     */
+    @Override
+    public boolean addNode(L label) {
+        if (label == null) {
+            throw new NullPointerException("Label is null");
+        }
+        if (labelsIndex.containsKey(label)) {
+            return false;
+        }
+        insertNode(new GraphNode<L>(label));
+        return true;
+    }
+
+    /*
+     * Gli indici dei nodi il cui valore sia maggiore dell'indice del nodo da
+     * cancellare devono essere decrementati di uno dopo la cancellazione del
+     * nodo
+     */
+    @Override
+    public void removeNode(GraphNode<L> node) {
+        if (node == null) {
+            throw new NullPointerException("Node is null");
+        }
+        if (!nodesIndex.containsKey(node)) {
+            throw new IllegalArgumentException("Node not in map");
+        }
+        removeNodeAt(nodesIndex.get(node));
+    }
+
+    /*
+     * Gli indici dei nodi il cui valore sia maggiore dell'indice del nodo da
+     * cancellare devono essere decrementati di uno dopo la cancellazione del
+     * nodo
+     */
+    @Override
+    public void removeNode(L label) {
+        if (label == null) {
+            throw new NullPointerException("Label is null");
+        }
+        GraphNode<L> node = labelsIndex.get(label);
+        if (node == null) {
+            throw new IllegalArgumentException("Node not in map");
+        }
+        removeNodeAt(nodesIndex.get(node));
+    }
+
+    /*
+     * Gli indici dei nodi il cui valore sia maggiore dell'indice del nodo da
+     * cancellare devono essere decrementati di uno dopo la cancellazione del
+     * nodo
+     */
+    @Override
+    public void removeNode(int i) {
+        if (i < 0 || i >= nodeCount()) {
+            throw new IndexOutOfBoundsException("Index is out of bounds");
+        }
+        removeNodeAt(i);
+    }
+
+    @Override
+    public GraphNode<L> getNode(GraphNode<L> node) {
+        if (node == null) {
+            throw new NullPointerException("Node is null");
+        }
+        return labelsIndex.get(node.getLabel());
+    }
+
+    @Override
+    public GraphNode<L> getNode(L label) {
+        if (label == null) {
+            throw new NullPointerException("Label is null");
+        }
+        return labelsIndex.get(label);
+    }
+
+    @Override
+    public GraphNode<L> getNode(int i) {
+        if (i < 0 || i >= nodeCount()) {
+            throw new IndexOutOfBoundsException("Index is out of bounds");
+        }
+        return nodesList.get(i);
+    }
+
+    @Override
+    public int getNodeIndexOf(GraphNode<L> node) {
+        if (node == null) {
+            throw new NullPointerException("Node is null");
+        }
+        if (!nodesIndex.containsKey(node)) {
+            throw new IllegalArgumentException("Node not in map");
+        }
+        return nodesIndex.get(node);
+    }
+
+    @Override
+    public int getNodeIndexOf(L label) {
+        if (label == null) {
+            throw new NullPointerException("Label is null");
+        }
+        GraphNode<L> node = labelsIndex.get(label);
+        if (node == null) {
+            throw new IllegalArgumentException("Node with given label not in map");
+        }
+        return nodesIndex.get(node);
+    }
+
+    @Override
+    public Set<GraphNode<L>> getNodes() {
+        return nodesIndex.keySet();
+    }
+
+    @Override
+    public boolean addEdge(GraphEdge<L> edge) {
+        if (edge == null) {
+            throw new NullPointerException("Edge is null");
+        }
+        if (getNode(edge.getNode1()) == null || getNode(edge.getNode2()) == null) {
+            throw new IllegalArgumentException("One of the nodes of Edge is null");
+        }
+        if (edge.isDirected()) {
+            throw new IllegalArgumentException("Edge is directed");
+        }
+        int i = nodesIndex.get(edge.getNode1());
+        int j = nodesIndex.get(edge.getNode2());
+        double weight = edge.hasWeight() ? edge.getWeight() : Double.NaN;
+        return setIfAbsent(i, j, weight);
+    }
+
+    @Override
+    public boolean addEdge(GraphNode<L> node1, GraphNode<L> node2) {
+        if (node1 == null || node2 == null) {
+            throw new NullPointerException("One of the nodes is null");
+        }
+        if (getNode(node1) == null || getNode(node2) == null) {
+            throw new IllegalArgumentException("One of the nodes is not in Map");
+        }
+        return setIfAbsent(nodesIndex.get(node1), nodesIndex.get(node2), Double.NaN);
+    }
+
+    @Override
+    public boolean addWeightedEdge(GraphNode<L> node1, GraphNode<L> node2, double weight) {
+        if (node1 == null || node2 == null) {
+            throw new NullPointerException("One of the nodes is null");
+        }
+        if (getNode(node1) == null || getNode(node2) == null) {
+            throw new IllegalArgumentException("One of the nodes is not in Map");
+        }
+        return setIfAbsent(nodesIndex.get(node1), nodesIndex.get(node2), weight);
+    }
+
+    @Override
+    public boolean addEdge(L label1, L label2) {
+        if (label1 == null || label2 == null) {
+            throw new NullPointerException("One of the labels is null");
+        }
+        if (getNode(label1) == null || getNode(label2) == null) {
+            throw new IllegalArgumentException("One of the nodes is not in Map");
+        }
+        return setIfAbsent(getNodeIndexOf(label1), getNodeIndexOf(label2), Double.NaN);
+    }
+
+    @Override
+    public boolean addWeightedEdge(L label1, L label2, double weight) {
+        if (label1 == null || label2 == null) {
+            throw new NullPointerException("One of the labels is null");
+        }
+        if (getNode(label1) == null || getNode(label2) == null) {
+            throw new IllegalArgumentException("One of the nodes is not in Map");
+        }
+        return setIfAbsent(getNodeIndexOf(label1), getNodeIndexOf(label2), weight);
+    }
+
+    @Override
+    public boolean addEdge(int i, int j) {
+        if (i < 0 || j < 0 || i >= nodeCount() || j >= nodeCount()) {
+            throw new IndexOutOfBoundsException("Index out of bound");
+        }
+        set(i, j, Double.NaN);
+        return true;
+    }
+
+    @Override
+    public boolean addWeightedEdge(int i, int j, double weight) {
+        if (i < 0 || j < 0 || i >= nodeCount() || j >= nodeCount()) {
+            throw new IndexOutOfBoundsException("Index out of bound");
+        }
+        set(i, j, weight);
+        return true;
+    }
+
+    @Override
+    public void removeEdge(GraphEdge<L> edge) {
+        if (edge == null) {
+            throw new NullPointerException("Edge is null");
+        }
+        if (getEdge(edge) == null) {
+            throw new IllegalArgumentException("Edge not in matrix");
+        }
+        unset(nodesIndex.get(edge.getNode1()), nodesIndex.get(edge.getNode2()));
+    }
+
+    @Override
+    public void removeEdge(GraphNode<L> node1, GraphNode<L> node2) {
+        if (node1 == null || node2 == null) {
+            throw new NullPointerException("One of the nodes is null");
+        }
+        if (getEdge(node1, node2) == null) {
+            throw new IllegalArgumentException("Edge not in matrix");
+        }
+        unset(nodesIndex.get(node1), nodesIndex.get(node2));
+    }
+
+    @Override
+    public void removeEdge(L label1, L label2) {
+        if (label1 == null || label2 == null) {
+            throw new NullPointerException("One of the labels is null");
+        }
+        if (getEdge(label1, label2) == null) {
+            throw new IllegalArgumentException("Edge not in matrix");
+        }
+        unset(getNodeIndexOf(label1), getNodeIndexOf(label2));
+    }
+
+    @Override
+    public void removeEdge(int i, int j) {
+        if (i < 0 || j < 0 || i >= nodeCount() || j >= nodeCount()) {
+            throw new IndexOutOfBoundsException("Index out of bound");
+        }
+        unset(i, j);
+    }
+
+    @Override
+    public GraphEdge<L> getEdge(GraphEdge<L> edge) {
+        if (edge == null) {
+            throw new NullPointerException("Edge is null");
+        }
+        if (getNode(edge.getNode1()) == null || getNode(edge.getNode2()) == null) {
+            throw new IllegalArgumentException("One of the nodes not in map");
+        }
+        if (edge.isDirected()) {
+            return null;
+        }
+        return edgeAt(nodesIndex.get(edge.getNode1()), nodesIndex.get(edge.getNode2()));
+    }
+
+    @Override
+    public GraphEdge<L> getEdge(GraphNode<L> node1, GraphNode<L> node2) {
+        if (node1 == null || node2 == null) {
+            throw new NullPointerException("One of the nodes is null");
+        }
+        if (getNode(node1) == null || getNode(node2) == null) {
+            throw new IllegalArgumentException("One of the nodes not in map");
+        }
+        return edgeAt(nodesIndex.get(node1), nodesIndex.get(node2));
+    }
+
+    @Override
+    public GraphEdge<L> getEdge(L label1, L label2) {
+        if (label1 == null || label2 == null) {
+            throw new NullPointerException("One of the labels is null");
+        }
+        if (getNode(label1) == null || getNode(label2) == null) {
+            throw new IllegalArgumentException("One of the nodes with given label not in map");
+        }
+        return edgeAt(getNodeIndexOf(label1), getNodeIndexOf(label2));
+    }
+
+    @Override
+    public GraphEdge<L> getEdge(int i, int j) {
+        if (i < 0 || j < 0 || i >= nodeCount() || j >= nodeCount()) {
+            throw new IndexOutOfBoundsException("Index out of bound");
+        }
+        return edgeAt(i, j);
+    }
+
+    @Override
+    public Set<GraphNode<L>> getAdjacentNodesOf(GraphNode<L> node) {
+        if (node == null) {
+            throw new NullPointerException("Node is null");
+        }
+        if (getNode(node) == null) {
+            throw new IllegalArgumentException("Node not in map");
+        }
+        return adjacentNodesAt(nodesIndex.get(node));
+    }
+
+    @Override
+    public Set<GraphNode<L>> getAdjacentNodesOf(L label) {
+        if (label == null) {
+            throw new NullPointerException("Label is null");
+        }
+        if (getNode(label) == null) {
+            throw new IllegalArgumentException("Node not in map");
+        }
+        return adjacentNodesAt(getNodeIndexOf(label));
+    }
+
+    /**
+     * Esegue l'operazione data su ogni nodo adiacente al nodo di indice i,
+     * passandole l'indice dell'adiacente e il peso dell'arco, NaN se l'arco
+     * non è pesato. I bit di presenza e i pesi vengono letti direttamente, in
+     * tempo O(n) e senza creare oggetti GraphEdge.
+     *
+     * @param i
+     *                   l'indice del nodo
+     * @param action
+     *                   l'operazione da eseguire su ogni adiacente
+     * @throw NullPointerException se l'operazione è null
+     * @throw IndexOutOfBoundsException se l'indice non corrisponde a un nodo
+     */
+    @Override
+    public void forEachNeighbor(int i, IntDoubleConsumer action) {
+        if (action == null) {
+            throw new NullPointerException("Action is null");
+        }
+        if (i < 0 || i >= nodeCount()) {
+            throw new IndexOutOfBoundsException("Index out of bound");
+        }
+        for (int j = 0; j < nodeCount(); j++) {
+            long cell = cellOf(i, j);
+            if (isSet(cell)) {
+                action.accept(j, weights[(int) cell]);
+            }
+        }
+    }
+
+    @Override
+    public Set<GraphNode<L>> getAdjacentNodesOf(int i) {
+        if (i < 0 || i >= nodeCount()) {
+            throw new IndexOutOfBoundsException("Index out of bound");
+        }
+        return adjacentNodesAt(i);
+    }
+
+    @Override
+    public Set<GraphNode<L>> getPredecessorNodesOf(GraphNode<L> node) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphNode<L>> getPredecessorNodesOf(L label) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphNode<L>> getPredecessorNodesOf(int i) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdgesOf(GraphNode<L> node) {
+        if (node == null) {
+            throw new NullPointerException("Node is null");
+        }
+        if (getNode(node) == null) {
+            throw new IllegalArgumentException("Node not in map");
+        }
+        return edgesAt(nodesIndex.get(node));
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdgesOf(L label) {
+        if (label == null) {
+            throw new NullPointerException("Label is null");
+        }
+        if (getNode(label) == null) {
+            throw new IllegalArgumentException("Node not in map");
+        }
+        return edgesAt(getNodeIndexOf(label));
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdgesOf(int i) {
+        if (i < 0 || i >= nodeCount()) {
+            throw new IndexOutOfBoundsException("Index out of bound");
+        }
+        return edgesAt(i);
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getIngoingEdgesOf(GraphNode<L> node) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getIngoingEdgesOf(L label) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getIngoingEdgesOf(int i) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    /*
+     * Gli archi sono creati scorrendo solo le celle del bitset che contengono
+     * un 1, colonna per colonna.
+     */
+    @Override
+    public Set<GraphEdge<L>> getEdges() {
+        Set<GraphEdge<L>> edges = new HashSet<>();
+        int column = 0;
+        long columnStart = 0;
+        for (long cell = nextSetCell(0); cell >= 0; cell = nextSetCell(cell + 1)) {
+            while (columnStart + column + 1 <= cell) {
+                columnStart += column + 1;
+                column++;
+            }
+            edges.add(newEdge((int) (cell - columnStart), column));
+        }
+        return edges;
+    }
+
+    /*
+     * Posizione nel triangolo superiore della cella (i, j) della matrice
+     */
+    private static long cellOf(int i, int j) {
+        int low = Math.min(i, j);
+        long high = Math.max(i, j);
+        return high * (high + 1) / 2 + low;
+    }
+
+    /*
+     * Numero di celle del triangolo superiore di una matrice n * n
+     */
+    private static long cellsFor(long n) {
+        return n * (n + 1) / 2;
+    }
+
+    private boolean isSet(long cell) {
+        return (presence[(int) (cell >>> 6)] & (1L << cell)) != 0;
+    }
+
+    /*
+     * Restituisce la prima cella con bit di presenza a 1 a partire da from
+     * compreso, -1 se non ce ne sono
+     */
+    private long nextSetCell(long from) {
+        int word = (int) (from >>> 6);
+        if (word >= presence.length) {
+            return -1;
+        }
+        long bits = presence[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                long cell = ((long) word << 6) + Long.numberOfTrailingZeros(bits);
+                return cell < cellsFor(nodeCount()) ? cell : -1;
+            }
+            if (++word == presence.length) {
+                return -1;
+            }
+            bits = presence[word];
+        }
+    }
+
+    /*
+     * Imposta l'arco tra i e j con il peso dato, sostituendo quello eventualmente
+     * presente
+     */
+    private void set(int i, int j, double weight) {
+        long cell = cellOf(i, j);
+        if (!isSet(cell)) {
+            presence[(int) (cell >>> 6)] |= 1L << cell;
+            edgeCounter++;
+        }
+        weights[(int) cell] = weight;
+    }
+
+    /*
+     * Imposta l'arco tra i e j solo se non è già presente, come avviene per
+     * l'aggiunta di un arco uguale secondo equals nella matrice con ArrayList
+     */
+    private boolean setIfAbsent(int i, int j, double weight) {
+        if (isSet(cellOf(i, j))) {
+            return false;
+        }
+        set(i, j, weight);
+        return true;
+    }
+
+    private void unset(int i, int j) {
+        long cell = cellOf(i, j);
+        if (isSet(cell)) {
+            presence[(int) (cell >>> 6)] &= ~(1L << cell);
+            edgeCounter--;
+        }
+    }
+
+    /*
+     * Crea l'oggetto arco corrispondente alla cella (i, j), null se l'arco non
+     * è presente
+     */
+    private GraphEdge<L> edgeAt(int i, int j) {
+        return isSet(cellOf(i, j)) ? newEdge(i, j) : null;
+    }
+
+    private GraphEdge<L> newEdge(int i, int j) {
+        double weight = weights[(int) cellOf(i, j)];
+        if (Double.isNaN(weight)) {
+            return new GraphEdge<L>(nodesList.get(i), nodesList.get(j), false);
+        }
+        return new GraphEdge<L>(nodesList.get(i), nodesList.get(j), false, weight);
+    }
+
+    private Set<GraphNode<L>> adjacentNodesAt(int i) {
+        Set<GraphNode<L>> returnSet = new HashSet<>();
+        for (int j = 0; j < nodeCount(); j++) {
+            if (isSet(cellOf(i, j))) {
+                returnSet.add(nodesList.get(j));
+            }
+        }
+        return returnSet;
+    }
+
+    private Set<GraphEdge<L>> edgesAt(int i) {
+        Set<GraphEdge<L>> returnSet = new HashSet<>();
+        for (int j = 0; j < nodeCount(); j++) {
+            if (isSet(cellOf(i, j))) {
+                returnSet.add(newEdge(i, j));
+            }
+        }
+        return returnSet;
+    }
+
+    /*
+     * Aggiunge in coda un nodo non ancora presente. Le celle della nuova
+     * colonna seguono quelle esistenti, quindi basta assicurare la capacità
+     * degli array. Quando serve la capacità cresce di un ottavo dei nodi,
+     * cioè di circa un quarto delle celle: raddoppiare le celle farebbe
+     * occupare durante la copia fino a tre volte la dimensione della matrice.
+     */
+    private void insertNode(GraphNode<L> node) {
+        long nodes = nodeCount() + 1L;
+        long needed = cellsFor(nodes);
+        if (needed > MAX_CELLS) {
+            throw new IllegalStateException("Too many nodes for packed matrix");
+        }
+        if (needed > weights.length) {
+            long grown = cellsFor(nodes + (nodes >>> 3));
+            resize((int) Math.min(MAX_CELLS, grown));
+        }
+        int index = nodesList.size();
+        nodesIndex.put(node, index);
+        labelsIndex.put(node.getLabel(), node);
+        nodesList.add(node);
+    }
+
+    private void resize(int capacity) {
+        weights = Arrays.copyOf(weights, capacity);
+        presence = Arrays.copyOf(presence, (capacity + 63) >>> 6);
+    }
+
+    /*
+     * Cancella il nodo di indice pos compattando il triangolo superiore in un
+     * solo passaggio e decrementa di uno gli indici dei nodi successivi. Ogni
+     * cella viene spostata in una posizione non successiva a quella da cui è
+     * letta, quindi la compattazione avviene negli stessi array, senza
+     * allocarne di nuovi; i bit delle celle rimaste libere in fondo vengono
+     * poi azzerati.
+     */
+    private void removeNodeAt(int pos) {
+        int n = nodeCount();
+        int removedEdges = 0;
+        long target = 0;
+        for (int j = 0; j < n; j++) {
+            for (int i = 0; i <= j; i++) {
+                long cell = cellOf(i, j);
+                if (i == pos || j == pos) {
+                    if (isSet(cell)) {
+                        removedEdges++;
+                    }
+                    continue;
+                }
+                if (isSet(cell)) {
+                    presence[(int) (target >>> 6)] |= 1L << target;
+                    weights[(int) target] = weights[(int) cell];
+                } else {
+                    presence[(int) (target >>> 6)] &= ~(1L << target);
+                }
+                target++;
+            }
+        }
+        for (long cell = target, used = cellsFor(n); cell < used; cell++) {
+            presence[(int) (cell >>> 6)] &= ~(1L << cell);
+        }
+        edgeCounter -= removedEdges;
+        GraphNode<L> removed = nodesList.remove(pos);
+        nodesIndex.remove(removed);
+        labelsIndex.remove(removed.getLabel());
+        for (int k = pos; k < nodesList.size(); k++) {
+            nodesIndex.put(nodesList.get(k), k);
+        }
+    }
+}
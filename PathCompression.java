@@ -0,0 +1,30 @@
+package it.unicam.cs.asdl2324.mp2;
+
+/**
+ * Strategie di compressione del cammino che le foreste di insiemi disgiunti
+ * possono applicare durante il find-set. Tutte le strategie sono iterative e
+ * garantiscono, insieme all'unione per rango, lo stesso costo ammortizzato
+ * quasi costante; differiscono per il numero di passaggi sul cammino e di
+ * scritture dei puntatori parent.
+ */
+public enum PathCompression {
+
+    /**
+     * Compressione completa in due passaggi, come in Cormen et al. (terza
+     * edizione) Capitolo 21 Sezione 3: il primo passaggio trova la radice e il
+     * secondo fa puntare alla radice tutti i nodi del cammino.
+     */
+    FULL,
+
+    /**
+     * Dimezzamento del cammino in un solo passaggio: un nodo sì e uno no del
+     * cammino viene fatto puntare al proprio nonno.
+     */
+    HALVING,
+
+    /**
+     * Divisione del cammino in un solo passaggio: ogni nodo del cammino viene
+     * fatto puntare al proprio nonno.
+     */
+    SPLITTING
+}
@@ -0,0 +1,253 @@
+package it.unicam.cs.asdl2324.mp2;
+
+import java.util.*;
+
+/**
+ * Classe che implementa l'algoritmo di Prim per trovare un Minimum Spanning
+ * Tree di un grafo non orientato, pesato e con pesi non negativi. Se il grafo
+ * non è connesso l'algoritmo riparte da un nodo non ancora raggiunto e
+ * restituisce una foresta di copertura minima.
+ *
+ * Sono disponibili due varianti, scelte in base alla densità misurata del
+ * grafo:
+ * <ul>
+ * <li>per grafi densi, come quelli rappresentati con matrice di adiacenza, a
+ * ogni passo si sceglie il nodo di chiave minima scorrendo un array e se ne
+ * esamina la riga, in tempo complessivo O(n²) indipendentemente dal numero
+ * di archi. Se il grafo implementa {@code WeightedAdjacency} la riga è letta
+ * con forEachNeighbor, senza creare oggetti GraphEdge, e i pesi sono
+ * controllati durante la stessa visita; altrimenti con getEdge(i, j);</li>
+ * <li>per grafi sparsi gli archi sono copiati in array di adiacenza compressi
+ * e i nodi non ancora raggiunti sono gestiti da un
+ * {@code IndexedDaryHeap} con decrease-key, in tempo O(m log_d n).</li>
+ * </ul>
+ *
+ * Il risultato è dello stesso tipo di {@code KruskalMST.computeMSP}. Se più
+ * archi hanno lo stesso peso l'albero trovato può essere diverso da quello di
+ * Kruskal, ma ha lo stesso peso totale.
+ *
+ * @param <L>
+ *                tipo delle etichette dei nodi del grafo
+ */
+public class PrimMST<L> {
+
+    /*
+     * Arietà dello heap usato dalla variante per grafi sparsi
+     */
+    private static final int HEAP_ARITY = 4;
+
+    /*
+     * Valore del parent dei nodi radice
+     */
+    private static final int NONE = -1;
+
+    /**
+     * Costruisce un calcolatore di un albero di copertura minimo che usa
+     * l'algoritmo di Prim su un grafo non orientato e pesato.
+     */
+    public PrimMST() {
+    }
+
+    /**
+     * Utilizza l'algoritmo di Prim per trovare un albero di copertura minimo
+     * in un grafo non orientato e pesato, con pesi degli archi non negativi.
+     *
+     * @param g
+     *              un grafo non orientato, pesato, con pesi non negativi
+     * @return l'insieme degli archi del grafo g che costituiscono l'albero di
+     *         copertura minimo trovato
+     * @throw NullPointerException se il grafo g è null
+     * @throw IllegalArgumentException se il grafo g è orientato, non pesato o
+     *        con pesi negativi
+     */
+    public Set<GraphEdge<L>> computeMSP(Graph<L> g) {
+        validateGraph(g);
+        int[] parents;
+        if (!isDense(g)) {
+            parents = sparseParents(g);
+        } else if (g instanceof WeightedAdjacency) {
+            parents = denseParents(g.nodeCount(), (WeightedAdjacency) g);
+        } else {
+            if (!checkWeights(g)) {
+                throw new IllegalArgumentException("Graph is not weighted or has negative weights");
+            }
+            parents = denseParents(g);
+        }
+        Set<GraphEdge<L>> mst = new HashSet<>();
+        for (int i = 0; i < parents.length; i++) {
+            if (parents[i] != NONE) {
+                mst.add(g.getEdge(parents[i], i));
+            }
+        }
+        return mst;
+    }
+
+    /**
+     * Determina se la variante con scansione delle righe è più conveniente di
+     * quella con heap, confrontando il costo n² della prima con il costo m
+     * log n della seconda.
+     *
+     * @param g
+     *              il grafo
+     * @return true se il grafo è abbastanza denso da preferire la scansione
+     *         delle righe
+     */
+    public boolean isDense(Graph<L> g) {
+        int n = g.nodeCount();
+        if (n < 2) {
+            return false;
+        }
+        double log = Math.log(n) / Math.log(2);
+        return (double) g.edgeCount() * log >= (double) n * n;
+    }
+
+    /*
+     * Variante O(n²): a ogni passo il nodo di chiave minima tra quelli non
+     * ancora nell'albero viene scelto scorrendo l'array delle chiavi. Se non
+     * ce ne sono con chiave finita l'albero corrente è completo e si riparte
+     * dal primo nodo non raggiunto. Restituisce il parent di ogni nodo.
+     */
+    private int[] denseParents(Graph<L> g) {
+        int n = g.nodeCount();
+        double[] keys = new double[n];
+        int[] parents = new int[n];
+        boolean[] inTree = new boolean[n];
+        Arrays.fill(keys, Double.POSITIVE_INFINITY);
+        Arrays.fill(parents, NONE);
+        for (int step = 0; step < n; step++) {
+            int u = NONE;
+            for (int i = 0; i < n; i++) {
+                if (!inTree[i] && (u == NONE || keys[i] < keys[u])) {
+                    u = i;
+                }
+            }
+            inTree[u] = true;
+            for (int v = 0; v < n; v++) {
+                if (inTree[v]) {
+                    continue;
+                }
+                GraphEdge<L> edge = g.getEdge(u, v);
+                if (edge != null && edge.getWeight() < keys[v]) {
+                    keys[v] = edge.getWeight();
+                    parents[v] = u;
+                }
+            }
+        }
+        return parents;
+    }
+
+    /*
+     * Come denseParents(Graph), ma legge ogni riga con forEachNeighbor senza
+     * creare archi. Ogni nodo entra nell'albero una volta e la sua riga viene
+     * letta per intero, quindi il controllo dei pesi fatto qui esamina tutti
+     * gli archi e sostituisce quello iniziale su getEdges().
+     */
+    private int[] denseParents(int n, WeightedAdjacency adjacency) {
+        double[] keys = new double[n];
+        int[] parents = new int[n];
+        boolean[] inTree = new boolean[n];
+        Arrays.fill(keys, Double.POSITIVE_INFINITY);
+        Arrays.fill(parents, NONE);
+        for (int step = 0; step < n; step++) {
+            int u = NONE;
+            for (int i = 0; i < n; i++) {
+                if (!inTree[i] && (u == NONE || keys[i] < keys[u])) {
+                    u = i;
+                }
+            }
+            inTree[u] = true;
+            int tree = u;
+            adjacency.forEachNeighbor(u, (v, weight) -> {
+                if (!(weight >= 0)) {
+                    throw new IllegalArgumentException(
+                            "Graph is not weighted or has negative weights");
+                }
+                if (!inTree[v] && weight < keys[v]) {
+                    keys[v] = weight;
+                    parents[v] = tree;
+                }
+            });
+        }
+        return parents;
+    }
+
+    /*
+     * Variante con heap: gli archi vengono copiati in array di adiacenza
+     * compressi e i nodi raggiungibili sono estratti da uno heap d-ario in
+     * ordine di chiave. Restituisce il parent di ogni nodo.
+     */
+    private int[] sparseParents(Graph<L> g) {
+        int n = g.nodeCount();
+        WeightedEdgeArrays edges = WeightedEdgeArrays.ofNonNegative(g);
+        int[] offsets = new int[n + 1];
+        for (int k = 0; k < edges.size(); k++) {
+            offsets[edges.source(k) + 1]++;
+            offsets[edges.target(k) + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] fill = Arrays.copyOf(offsets, n);
+        int[] adjacent = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        for (int k = 0; k < edges.size(); k++) {
+            int u = edges.source(k);
+            int v = edges.target(k);
+            adjacent[fill[u]] = v;
+            weights[fill[u]++] = edges.weight(k);
+            adjacent[fill[v]] = u;
+            weights[fill[v]++] = edges.weight(k);
+        }
+        int[] parents = new int[n];
+        boolean[] inTree = new boolean[n];
+        Arrays.fill(parents, NONE);
+        IndexedDaryHeap heap = new IndexedDaryHeap(HEAP_ARITY, n);
+        for (int root = 0; root < n; root++) {
+            if (inTree[root]) {
+                continue;
+            }
+            heap.insert(root, 0);
+            while (!heap.isEmpty()) {
+                int u = heap.extractMin();
+                inTree[u] = true;
+                for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                    int v = adjacent[k];
+                    if (inTree[v]) {
+                        continue;
+                    }
+                    if (!heap.contains(v)) {
+                        heap.insert(v, weights[k]);
+                        parents[v] = u;
+                    } else if (weights[k] < heap.keyOf(v)) {
+                        heap.decreaseKey(v, weights[k]);
+                        parents[v] = u;
+                    }
+                }
+            }
+        }
+        return parents;
+    }
+
+    private boolean checkWeights(Graph<L> g) {
+        for (GraphEdge<L> edge : g.getEdges()) {
+            if (!edge.hasWeight() || edge.getWeight() < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * I pesi sono controllati durante la lettura degli archi, da
+     * WeightedEdgeArrays.ofNonNegative o dalla visita delle righe, oppure da
+     * checkWeights per i grafi densi che non implementano WeightedAdjacency
+     */
+    private void validateGraph(Graph<L> g) {
+        if (g == null) {
+            throw new NullPointerException("Il grafo non può essere null");
+        }
+        if (g.isDirected()) {
+            throw new IllegalArgumentException("Il grafo deve essere non orientato");
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package it.unicam.cs.asdl2324.mp2;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Programma di verifica delle implementazioni concorrenti degli insiemi
+ * disgiunti, {@code ConcurrentIntDisjointSets} e
+ * {@code ConcurrentDisjointSets}. In ogni round più thread, fatti partire
+ * insieme, eseguono in parallelo union e findSet su coppie di elementi
+ * casuali condivise; al termine la partizione ottenuta viene confrontata con
+ * quella calcolata da una {@code IntForestDisjointSets} sequenziale sulle
+ * stesse coppie.
+ *
+ * Durante la corsa ogni thread controlla che, dopo una union, i due elementi
+ * risultino nello stesso insieme e che il rappresentante restituito da
+ * findSet stia nello stesso insieme dell'elemento cercato. Al termine si
+ * controlla che le due partizioni coincidano e che il numero di union che
+ * hanno restituito true sia uguale al numero di unioni effettive della
+ * versione sequenziale. Per {@code ConcurrentDisjointSets} tutti i thread
+ * eseguono anche makeSet degli stessi elementi, in ordini diversi, su una
+ * struttura di capacità pari al numero di elementi: ogni elemento deve essere
+ * inserito esattamente una volta senza esaurire la capacità.
+ *
+ * Il programma usa solo la Java SE e si esegue con
+ *
+ * <pre>
+ * java it.unicam.cs.asdl2324.mp2.UnionFindStress [opzioni]
+ * </pre>
+ *
+ * con le opzioni, tutte facoltative:
+ * <ul>
+ * <li>{@code --elements=100000} numero di elementi;</li>
+ * <li>{@code --threads=8} numero di thread, per difetto il numero di
+ * processori e almeno 4;</li>
+ * <li>{@code --rounds=20} numero di round per implementazione;</li>
+ * <li>{@code --seed=42} seme dei generatori.</li>
+ * </ul>
+ * Il programma termina con codice 1 al primo errore trovato.
+ */
+public class UnionFindStress {
+
+    /*
+     * Numero di coppie per elemento
+     */
+    private static final int PAIRS_PER_ELEMENT = 2;
+
+    private final int elements;
+
+    private final int threads;
+
+    private final int rounds;
+
+    private final long seed;
+
+    /*
+     * Primo errore trovato da un thread, null se non ce ne sono
+     */
+    private final AtomicReference<String> failure;
+
+    /**
+     * Costruisce un programma di verifica con i parametri dati.
+     *
+     * @param elements
+     *                     numero di elementi
+     * @param threads
+     *                     numero di thread
+     * @param rounds
+     *                     numero di round per implementazione
+     * @param seed
+     *                     seme dei generatori
+     * @throw IllegalArgumentException se elements, threads o rounds non sono
+     *        positivi
+     */
+    public UnionFindStress(int elements, int threads, int rounds, long seed) {
+        if (elements <= 0 || threads <= 0 || rounds <= 0) {
+            throw new IllegalArgumentException("Parametri non validi");
+        }
+        this.elements = elements;
+        this.threads = threads;
+        this.rounds = rounds;
+        this.seed = seed;
+        this.failure = new AtomicReference<>();
+    }
+
+    /**
+     * Esegue tutti i round su entrambe le implementazioni.
+     *
+     * @return null se tutte le verifiche sono riuscite, altrimenti la
+     *         descrizione del primo errore
+     * @throw InterruptedException se il thread viene interrotto mentre attende
+     *        i thread di lavoro
+     */
+    public String run() throws InterruptedException {
+        Random random = new Random(seed);
+        for (int round = 0; round < rounds && failure.get() == null; round++) {
+            int[] pairs = randomPairs(random);
+            checkIntForest(round, pairs, random.nextLong());
+            if (failure.get() == null) {
+                checkGenericSets(round, pairs, random.nextLong());
+            }
+        }
+        return failure.get();
+    }
+
+    private int[] randomPairs(Random random) {
+        int[] pairs = new int[2 * PAIRS_PER_ELEMENT * elements];
+        for (int k = 0; k < pairs.length; k++) {
+            pairs[k] = random.nextInt(elements);
+        }
+        return pairs;
+    }
+
+    private void checkIntForest(int round, int[] pairs, long roundSeed)
+            throws InterruptedException {
+        ConcurrentIntDisjointSets sets = new ConcurrentIntDisjointSets(elements);
+        AtomicLong merges = new AtomicLong();
+        race(t -> {
+            Random random = new Random(roundSeed + t);
+            long merged = 0;
+            for (int k = 2 * t; k < pairs.length && failure.get() == null; k += 2 * threads) {
+                int u = pairs[k];
+                int v = pairs[k + 1];
+                if (sets.union(u, v)) {
+                    merged++;
+                }
+                if (!sets.sameSet(u, v)) {
+                    fail("round " + round + ": " + u + " and " + v + " apart after union");
+                }
+                int x = random.nextInt(elements);
+                int representative = sets.findSet(x);
+                if (!sets.sameSet(x, representative)) {
+                    fail("round " + round + ": findSet(" + x + ") = " + representative
+                            + " is in another set");
+                }
+            }
+            merges.addAndGet(merged);
+        });
+        compare("ConcurrentIntDisjointSets round " + round, pairs, merges.get(), sets::findSet);
+    }
+
+    private void checkGenericSets(int round, int[] pairs, long roundSeed)
+            throws InterruptedException {
+        ConcurrentDisjointSets<Integer> sets = new ConcurrentDisjointSets<>(elements);
+        Integer[] values = new Integer[elements];
+        for (int i = 0; i < elements; i++) {
+            values[i] = i;
+        }
+        AtomicLong inserted = new AtomicLong();
+        race(t -> {
+            List<Integer> order = new ArrayList<>(Arrays.asList(values));
+            Collections.shuffle(order, new Random(roundSeed + t));
+            long added = 0;
+            for (Integer value : order) {
+                try {
+                    sets.makeSet(value);
+                    added++;
+                } catch (IllegalArgumentException e) {
+                    // un altro thread lo ha già inserito
+                } catch (IllegalStateException e) {
+                    fail("round " + round + ": " + e.getMessage() + " inserting " + value);
+                    return;
+                }
+            }
+            inserted.addAndGet(added);
+        });
+        if (failure.get() == null && inserted.get() != elements) {
+            fail("round " + round + ": " + inserted.get() + " successful makeSet for " + elements
+                    + " elements");
+        }
+        if (failure.get() != null) {
+            return;
+        }
+        race(t -> {
+            Random random = new Random(roundSeed - t);
+            for (int k = 2 * t; k < pairs.length && failure.get() == null; k += 2 * threads) {
+                sets.union(values[pairs[k]], values[pairs[k + 1]]);
+                Integer x = values[random.nextInt(elements)];
+                Integer representative = sets.findSet(x);
+                if (representative == null || !sets.isPresent(representative)) {
+                    fail("round " + round + ": findSet(" + x + ") = " + representative);
+                }
+            }
+        });
+        compare("ConcurrentDisjointSets round " + round, pairs, -1, i -> sets.findSet(values[i]));
+    }
+
+    /*
+     * Confronta la partizione data dalla funzione find con quella sequenziale
+     * e, se merges non è negativo, il numero di unioni effettive
+     */
+    private void compare(String what, int[] pairs, long merges,
+            IntFunction<Object> find) {
+        if (failure.get() != null) {
+            return;
+        }
+        IntForestDisjointSets expected = new IntForestDisjointSets();
+        expected.reset(elements);
+        long expectedMerges = 0;
+        for (int k = 0; k < pairs.length; k += 2) {
+            if (expected.union(pairs[k], pairs[k + 1])) {
+                expectedMerges++;
+            }
+        }
+        if (merges >= 0 && merges != expectedMerges) {
+            fail(what + ": " + merges + " successful unions, expected " + expectedMerges);
+            return;
+        }
+        // le due partizioni coincidono se la corrispondenza tra i
+        // rappresentanti è biunivoca
+        Map<Object, Integer> toExpected = new HashMap<>();
+        Map<Integer, Object> toActual = new HashMap<>();
+        for (int i = 0; i < elements; i++) {
+            Object actual = find.apply(i);
+            int root = expected.findSet(i);
+            Integer mapped = toExpected.putIfAbsent(actual, root);
+            Object reverse = toActual.putIfAbsent(root, actual);
+            if ((mapped != null && mapped != root) || (reverse != null && !reverse.equals(actual))) {
+                fail(what + ": element " + i + " is in the wrong set");
+                return;
+            }
+        }
+    }
+
+    /*
+     * Esegue il lavoro dato su tutti i thread, fatti partire insieme, e
+     * attende che terminino. Un'eccezione in un thread è registrata come
+     * errore.
+     */
+    private void race(IntConsumer work) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    work.accept(id);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException | Error e) {
+                    fail("thread " + id + ": " + e);
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private void fail(String message) {
+        failure.compareAndSet(null, message);
+    }
+
+    /**
+     * Esegue le verifiche con i parametri letti dalla riga di comando.
+     *
+     * @param args
+     *                 opzioni nella forma --nome=valore
+     * @throw IllegalArgumentException se un'opzione non è riconosciuta o ha
+     *        un valore non valido
+     * @throw InterruptedException se il thread principale viene interrotto
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int elements = 100000;
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int rounds = 20;
+        long seed = 42;
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Opzione non valida: " + arg);
+            }
+            String name = arg.substring(2, equals);
+            String value = arg.substring(equals + 1);
+            switch (name) {
+            case "elements":
+                elements = Integer.parseInt(value);
+                break;
+            case "threads":
+                threads = Integer.parseInt(value);
+                break;
+            case "rounds":
+                rounds = Integer.parseInt(value);
+                break;
+            case "seed":
+                seed = Long.parseLong(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Opzione non valida: " + arg);
+            }
+        }
+        String failure = new UnionFindStress(elements, threads, rounds, seed).run();
+        if (failure != null) {
+            System.err.println("FAILED: " + failure);
+            System.exit(1);
+        }
+        System.out.println("OK: " + rounds + " rounds, " + elements + " elements, " + threads
+                + " threads");
+    }
+}
@@ -0,0 +1,25 @@
+package it.unicam.cs.asdl2324.mp2;
+
+/**
+ * Grafo i cui nodi adiacenti a un nodo possono essere visitati come coppie
+ * di indice e peso, senza creare oggetti GraphEdge né insiemi. È
+ * implementata dalle rappresentazioni del progetto e permette agli algoritmi
+ * che scorrono le righe della matrice, come la variante densa di
+ * {@code PrimMST}, di leggere direttamente la loro struttura interna.
+ */
+public interface WeightedAdjacency {
+
+    /**
+     * Esegue l'operazione data su ogni nodo adiacente al nodo di indice i,
+     * passandole l'indice dell'adiacente e il peso dell'arco, NaN se l'arco
+     * non è pesato.
+     *
+     * @param i
+     *                   l'indice del nodo
+     * @param action
+     *                   l'operazione da eseguire su ogni adiacente
+     * @throw NullPointerException se l'operazione è null
+     * @throw IndexOutOfBoundsException se l'indice non corrisponde a un nodo
+     */
+    void forEachNeighbor(int i, IntDoubleConsumer action);
+}
@@ -0,0 +1,463 @@
+package it.unicam.cs.asdl2324.mp2;
+
+import java.util.*;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Lista di archi pesati memorizzata in tre array paralleli di tipo primitivo:
+ * il k-esimo arco collega i nodi di indice source(k) e target(k) e ha peso
+ * weight(k). Gli archi sono identificati solo dagli indici dei loro nodi,
+ * senza oggetti GraphEdge, ed è possibile ordinarli per peso senza confronti
+ * tramite Comparator e senza boxing.
+ *
+ * Gli ordinamenti e le partizioni confrontano gli archi per peso e, a parità
+ * di peso, per posizione nella lista: l'ordine è quindi totale e il
+ * risultato è lo stesso di un ordinamento stabile per peso della lista.
+ */
+public class WeightedEdgeArrays implements WeightedEdgeSource {
+
+    /*
+     * Sotto questa dimensione l'ordinamento procede in modo sequenziale
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /*
+     * Sotto questa dimensione l'ordinamento usa l'insertion sort
+     */
+    private static final int INSERTION_THRESHOLD = 32;
+
+    /*
+     * Array paralleli degli estremi e dei pesi degli archi. Le variabili sono
+     * protected unicamente per permettere i test JUnit.
+     */
+    protected int[] sources;
+
+    protected int[] targets;
+
+    protected double[] weights;
+
+    /*
+     * Numero di archi presenti
+     */
+    protected int size;
+
+    /**
+     * Costruisce una lista di archi vuota.
+     */
+    public WeightedEdgeArrays() {
+        this(16);
+    }
+
+    /**
+     * Costruisce una lista di archi vuota con spazio per il numero di archi
+     * dato prima di dover ingrandire gli array.
+     *
+     * @param initialCapacity
+     *                            numero di archi previsto
+     * @throw IllegalArgumentException se la capacità è negativa
+     */
+    public WeightedEdgeArrays(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Capacity is negative");
+        }
+        this.sources = new int[initialCapacity];
+        this.targets = new int[initialCapacity];
+        this.weights = new double[initialCapacity];
+        this.size = 0;
+    }
+
+    /**
+     * Crea la lista degli archi di un grafo, nell'ordine in cui li
+     * restituisce getEdges(), identificando ogni nodo con il suo indice nel
+     * grafo.
+     *
+     * @param <L>
+     *              tipo delle etichette dei nodi del grafo
+     * @param g
+     *              il grafo
+     * @return la lista degli archi di g
+     * @throw NullPointerException se il grafo è null
+     */
+    public static <L> WeightedEdgeArrays of(Graph<L> g) {
+        if (g == null) {
+            throw new NullPointerException("Graph is null");
+        }
+        Set<GraphEdge<L>> set = g.getEdges();
+        WeightedEdgeArrays edges = new WeightedEdgeArrays(set.size());
+        for (GraphEdge<L> edge : set) {
+            edges.add(g.getNodeIndexOf(edge.getNode1()), g.getNodeIndexOf(edge.getNode2()),
+                    edge.getWeight());
+        }
+        return edges;
+    }
+
+    /**
+     * Come {@link #of(Graph)}, ma controlla ogni arco mentre lo copia: la
+     * validazione dei pesi e l'estrazione degli archi avvengono nella stessa
+     * visita di getEdges().
+     *
+     * @param <L>
+     *              tipo delle etichette dei nodi del grafo
+     * @param g
+     *              il grafo
+     * @return la lista degli archi di g
+     * @throw NullPointerException se il grafo è null
+     * @throw IllegalArgumentException se un arco non è pesato o ha peso
+     *        negativo; il messaggio indica il primo arco di questo tipo
+     */
+    public static <L> WeightedEdgeArrays ofNonNegative(Graph<L> g) {
+        if (g == null) {
+            throw new NullPointerException("Graph is null");
+        }
+        WeightedEdgeArrays edges = new WeightedEdgeArrays(g.edgeCount());
+        edges.addNonNegativeEdgesOf(g);
+        return edges;
+    }
+
+    /**
+     * Aggiunge in coda alla lista gli archi di un grafo, nell'ordine in cui li
+     * restituisce getEdges(), controllandone il peso come
+     * {@link #ofNonNegative(Graph)}. Gli array vengono ingranditi al più una
+     * volta, quindi una lista svuotata con clear() e riempita con grafi non
+     * più grandi dei precedenti non alloca memoria.
+     *
+     * @param <L>
+     *              tipo delle etichette dei nodi del grafo
+     * @param g
+     *              il grafo
+     * @throw NullPointerException se il grafo è null
+     * @throw IllegalArgumentException se un arco non è pesato o ha peso
+     *        negativo; il messaggio indica il primo arco di questo tipo
+     */
+    public <L> void addNonNegativeEdgesOf(Graph<L> g) {
+        if (g == null) {
+            throw new NullPointerException("Graph is null");
+        }
+        ensureCapacity(size + g.edgeCount());
+        for (GraphEdge<L> edge : g.getEdges()) {
+            if (!edge.hasWeight() || edge.getWeight() < 0) {
+                throw new IllegalArgumentException(
+                        "Graph is not weighted or has negative weights: " + edge);
+            }
+            add(g.getNodeIndexOf(edge.getNode1()), g.getNodeIndexOf(edge.getNode2()),
+                    edge.getWeight());
+        }
+    }
+
+    /**
+     * Restituisce il numero di archi presenti.
+     *
+     * @return il numero di archi presenti
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Aggiunge un arco in coda alla lista.
+     *
+     * @param source
+     *                   l'indice del primo estremo
+     * @param target
+     *                   l'indice del secondo estremo
+     * @param weight
+     *                   il peso dell'arco
+     */
+    public void add(int source, int target, double weight) {
+        if (size == sources.length) {
+            ensureCapacity(Math.max(16, 2 * sources.length));
+        }
+        sources[size] = source;
+        targets[size] = target;
+        weights[size] = weight;
+        size++;
+    }
+
+    /**
+     * Ingrandisce, se necessario, gli array in modo che possano contenere il
+     * numero di archi dato senza altre allocazioni.
+     *
+     * @param capacity
+     *                     numero di archi da poter contenere
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > sources.length) {
+            sources = Arrays.copyOf(sources, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+    }
+
+    /**
+     * Restituisce l'indice del primo estremo del k-esimo arco.
+     *
+     * @param k
+     *              la posizione dell'arco
+     * @return l'indice del primo estremo
+     * @throw IndexOutOfBoundsException se k non è una posizione valida
+     */
+    @Override
+    public int source(int k) {
+        checkPosition(k);
+        return sources[k];
+    }
+
+    /**
+     * Restituisce l'indice del secondo estremo del k-esimo arco.
+     *
+     * @param k
+     *              la posizione dell'arco
+     * @return l'indice del secondo estremo
+     * @throw IndexOutOfBoundsException se k non è una posizione valida
+     */
+    @Override
+    public int target(int k) {
+        checkPosition(k);
+        return targets[k];
+    }
+
+    /**
+     * Restituisce il peso del k-esimo arco.
+     *
+     * @param k
+     *              la posizione dell'arco
+     * @return il peso dell'arco
+     * @throw IndexOutOfBoundsException se k non è una posizione valida
+     */
+    @Override
+    public double weight(int k) {
+        checkPosition(k);
+        return weights[k];
+    }
+
+    /**
+     * Determina se l'arco in posizione a precede l'arco in posizione b
+     * nell'ordine usato da ordinamenti e partizioni: per peso e, a parità di
+     * peso, per posizione.
+     *
+     * @param a
+     *              la posizione del primo arco
+     * @param b
+     *              la posizione del secondo arco
+     * @return true se l'arco a precede l'arco b
+     * @throw IndexOutOfBoundsException se una delle posizioni non è valida
+     */
+    public boolean precedes(int a, int b) {
+        checkPosition(a);
+        checkPosition(b);
+        return precedes(weights, a, b);
+    }
+
+    /**
+     * Svuota la lista mantenendo gli array allocati.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Restituisce le posizioni degli archi ordinate per peso crescente. A
+     * parità di peso le posizioni restano in ordine crescente, cioè
+     * l'ordinamento è stabile come quello di {@code List.sort}. Le liste
+     * grandi sono ordinate in parallelo con il pool fork/join comune.
+     *
+     * @return un array di size() posizioni ordinate per peso
+     */
+    public int[] sortedOrder() {
+        int[] order = new int[size];
+        for (int k = 0; k < size; k++) {
+            order[k] = k;
+        }
+        sortByWeight(order, 0, size);
+        return order;
+    }
+
+    /**
+     * Ordina per peso, e a parità di peso per posizione, le posizioni di
+     * archi contenute in positions[from, to). Gli intervalli grandi sono
+     * ordinati in parallelo con il pool fork/join comune.
+     *
+     * @param positions
+     *                      array di posizioni di archi di questa lista
+     * @param from
+     *                      inizio dell'intervallo da ordinare, compreso
+     * @param to
+     *                      fine dell'intervallo da ordinare, esclusa
+     */
+    public void sortByWeight(int[] positions, int from, int to) {
+        sortByWeight(positions, new int[positions.length], from, to);
+    }
+
+    /**
+     * Come {@link #sortByWeight(int[], int, int)}, ma usa come spazio di
+     * appoggio l'array dato invece di allocarne uno nuovo.
+     *
+     * @param positions
+     *                      array di posizioni di archi di questa lista
+     * @param buffer
+     *                      array di appoggio lungo almeno quanto positions
+     * @param from
+     *                      inizio dell'intervallo da ordinare, compreso
+     * @param to
+     *                      fine dell'intervallo da ordinare, esclusa
+     */
+    public void sortByWeight(int[] positions, int[] buffer, int from, int to) {
+        if (to - from < PARALLEL_THRESHOLD) {
+            mergeSort(positions, buffer, weights, from, to);
+        } else {
+            new SortTask(positions, buffer, weights, from, to).invoke();
+        }
+    }
+
+    /**
+     * Come {@link #sortByWeight(int[], int[], int, int)}, ma ordina sempre
+     * nel thread chiamante, anche gli intervalli grandi, senza creare task
+     * fork/join: l'ordinamento non alloca quindi memoria.
+     *
+     * @param positions
+     *                      array di posizioni di archi di questa lista
+     * @param buffer
+     *                      array di appoggio lungo almeno quanto positions
+     * @param from
+     *                      inizio dell'intervallo da ordinare, compreso
+     * @param to
+     *                      fine dell'intervallo da ordinare, esclusa
+     */
+    public void sortByWeightSequentially(int[] positions, int[] buffer, int from, int to) {
+        mergeSort(positions, buffer, weights, from, to);
+    }
+
+    /**
+     * Partiziona le posizioni di archi contenute in positions[from, to)
+     * rispetto all'arco in posizione pivot dell'intervallo: gli archi che lo
+     * precedono per peso, e a parità di peso per posizione, vengono spostati
+     * prima di lui e gli altri dopo.
+     *
+     * @param positions
+     *                      array di posizioni di archi di questa lista
+     * @param from
+     *                      inizio dell'intervallo, compreso
+     * @param to
+     *                      fine dell'intervallo, esclusa
+     * @param pivot
+     *                      indice in positions, tra from e to - 1, dell'arco
+     *                      pivot
+     * @return l'indice in positions in cui si trova il pivot dopo la
+     *         partizione
+     */
+    public int partitionByWeight(int[] positions, int from, int to, int pivot) {
+        int pivotEdge = positions[pivot];
+        positions[pivot] = positions[to - 1];
+        positions[to - 1] = pivotEdge;
+        int store = from;
+        for (int k = from; k < to - 1; k++) {
+            if (precedes(weights, positions[k], pivotEdge)) {
+                int tmp = positions[k];
+                positions[k] = positions[store];
+                positions[store] = tmp;
+                store++;
+            }
+        }
+        positions[to - 1] = positions[store];
+        positions[store] = pivotEdge;
+        return store;
+    }
+
+    /*
+     * Ordine totale tra archi: per peso e, a parità di peso, per posizione
+     */
+    private static boolean precedes(double[] keys, int a, int b) {
+        return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+    }
+
+    /*
+     * Merge sort di order[lo, hi) secondo il peso e la posizione, che usa
+     * buffer[lo, hi) come spazio di appoggio
+     */
+    private static void mergeSort(int[] order, int[] buffer, double[] keys, int lo, int hi) {
+        if (hi - lo <= INSERTION_THRESHOLD) {
+            insertionSort(order, keys, lo, hi);
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        mergeSort(order, buffer, keys, lo, mid);
+        mergeSort(order, buffer, keys, mid, hi);
+        merge(order, buffer, keys, lo, mid, hi);
+    }
+
+    private static void insertionSort(int[] order, double[] keys, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            int current = order[i];
+            int j = i - 1;
+            while (j >= lo && precedes(keys, current, order[j])) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = current;
+        }
+    }
+
+    /*
+     * Fonde le due metà ordinate order[lo, mid) e order[mid, hi)
+     */
+    private static void merge(int[] order, int[] buffer, double[] keys, int lo, int mid, int hi) {
+        if (precedes(keys, order[mid - 1], order[mid])) {
+            return;
+        }
+        System.arraycopy(order, lo, buffer, lo, hi - lo);
+        int i = lo;
+        int j = mid;
+        for (int k = lo; k < hi; k++) {
+            if (i < mid && (j >= hi || precedes(keys, buffer[i], buffer[j]))) {
+                order[k] = buffer[i++];
+            } else {
+                order[k] = buffer[j++];
+            }
+        }
+    }
+
+    /*
+     * Versione fork/join del merge sort: le due metà vengono ordinate in
+     * parallelo finché sono abbastanza grandi
+     */
+    private static class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] order;
+
+        private final int[] buffer;
+
+        private final double[] keys;
+
+        private final int lo;
+
+        private final int hi;
+
+        SortTask(int[] order, int[] buffer, double[] keys, int lo, int hi) {
+            this.order = order;
+            this.buffer = buffer;
+            this.keys = keys;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo < PARALLEL_THRESHOLD) {
+                mergeSort(order, buffer, keys, lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new SortTask(order, buffer, keys, lo, mid),
+                    new SortTask(order, buffer, keys, mid, hi));
+            merge(order, buffer, keys, lo, mid, hi);
+        }
+    }
+
+    private void checkPosition(int k) {
+        if (k < 0 || k >= size) {
+            throw new IndexOutOfBoundsException("Edge position out of bound");
+        }
+    }
+}
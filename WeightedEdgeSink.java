@@ -0,0 +1,22 @@
+package it.unicam.cs.asdl2324.mp2;
+
+/**
+ * Destinazione di una sequenza di archi pesati identificati dagli indici dei
+ * loro nodi nel grafo. Permette a un algoritmo di consegnare il proprio
+ * risultato arco per arco, senza creare oggetti GraphEdge né collezioni.
+ */
+@FunctionalInterface
+public interface WeightedEdgeSink {
+
+    /**
+     * Riceve un arco.
+     *
+     * @param source
+     *                   indice nel grafo del primo estremo dell'arco
+     * @param target
+     *                   indice nel grafo del secondo estremo dell'arco
+     * @param weight
+     *                   peso dell'arco
+     */
+    void accept(int source, int target, double weight);
+}
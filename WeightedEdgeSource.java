@@ -0,0 +1,58 @@
+package it.unicam.cs.asdl2324.mp2;
+
+/**
+ * Sequenza di sola lettura di archi pesati identificati dagli indici dei loro
+ * nodi: il k-esimo arco collega i nodi di indice source(k) e target(k) e ha
+ * peso weight(k). Permette agli algoritmi di leggere gli archi da strutture
+ * diverse, come array in memoria o file mappati, senza copiarli.
+ */
+public interface WeightedEdgeSource {
+
+    /**
+     * Restituisce il numero di archi.
+     *
+     * @return il numero di archi
+     */
+    int size();
+
+    /**
+     * Restituisce l'indice del primo estremo del k-esimo arco.
+     *
+     * @param k
+     *              la posizione dell'arco
+     * @return l'indice del primo estremo
+     * @throw IndexOutOfBoundsException se k non è una posizione valida
+     */
+    int source(int k);
+
+    /**
+     * Restituisce l'indice del secondo estremo del k-esimo arco.
+     *
+     * @param k
+     *              la posizione dell'arco
+     * @return l'indice del secondo estremo
+     * @throw IndexOutOfBoundsException se k non è una posizione valida
+     */
+    int target(int k);
+
+    /**
+     * Restituisce il peso del k-esimo arco.
+     *
+     * @param k
+     *              la posizione dell'arco
+     * @return il peso dell'arco, NaN se l'arco non è pesato
+     * @throw IndexOutOfBoundsException se k non è una posizione valida
+     */
+    double weight(int k);
+
+    /**
+     * Indica se gli archi sono già in ordine di peso non decrescente. Gli
+     * algoritmi che devono ordinarli possono in questo caso leggerli
+     * direttamente nell'ordine in cui sono.
+     *
+     * @return true se gli archi sono ordinati per peso
+     */
+    default boolean isSortedByWeight() {
+        return false;
+    }
+}